@@ -0,0 +1,140 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * searchByBuilder 조건 조합별 처리량, postgres 대신 in-process H2 를 사용한다.
+ * *Rebuilt => 캐시 이전처럼 호출마다 BooleanBuilder 로 querydsl 쿼리를 만들고 jpql 로 직렬화한다. (같은 jpql)
+ * ./gradlew jmh -Pjmh.includes=MemberSearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberSearchBenchmark {
+
+    private static final int TEAMS = 100;
+    private static final int MEMBERS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private MemberJpaRepository memberJpaRepository;
+    private JPAQueryFactory query;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.url=jdbc:h2:mem:member_search;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.open-in-view=false",
+                        "--logging.level.org.hibernate.SQL=off",
+                        "--logging.level.org.hibernate.type=off",
+                        "--logging.level.root=warn");
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        query = context.getBean(JPAQueryFactory.class);
+
+        EntityManager em = context.getBean(EntityManager.class);
+        new TransactionTemplate(context.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> {
+            List<Team> teams = new ArrayList<>();
+            for (int i = 0; i < TEAMS; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teams.add(team);
+            }
+            for (int i = 0; i < MEMBERS; i++) {
+                em.persist(new Member("member" + i, i % 100, teams.get(i % TEAMS)));
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByUsername() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member" + ThreadLocalRandom.current().nextInt(MEMBERS));
+        return memberJpaRepository.searchByBuilder(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByTeamAndAge() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team" + ThreadLocalRandom.current().nextInt(TEAMS));
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(40);
+        return memberJpaRepository.searchByBuilder(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByUsernameRebuilt() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("member" + ThreadLocalRandom.current().nextInt(MEMBERS));
+        return rebuilt(condition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByTeamAndAgeRebuilt() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team" + ThreadLocalRandom.current().nextInt(TEAMS));
+        condition.setAgeGoe(30);
+        condition.setAgeLoe(40);
+        return rebuilt(condition);
+    }
+
+    private List<MemberTeamDto> rebuilt(MemberSearchCondition condition) {
+        BooleanBuilder builder = new BooleanBuilder();
+        if (hasText(condition.getUsername())) {
+            builder.and(member.username.eq(condition.getUsername()));
+        }
+        if (hasText(condition.getTeamName())) {
+            builder.and(team.name.eq(condition.getTeamName()));
+        }
+        if (condition.getAgeGoe() != null) {
+            builder.and(member.age.goe(condition.getAgeGoe()));
+        }
+        if (condition.getAgeLoe() != null) {
+            builder.and(member.age.loe(condition.getAgeLoe()));
+        }
+
+        return query.select(new QMemberTeamDto(
+                        member.id.as("memberId")
+                        , member.username
+                        , member.age
+                        , team.id.as("teamId")
+                        , team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(builder)
+                .fetch();
+    }
+}
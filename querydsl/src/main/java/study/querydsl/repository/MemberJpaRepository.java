@@ -1,20 +1,36 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QTeam;
+import study.querydsl.support.AsyncRepositoryConfig;
+import study.querydsl.support.EntityStreams;
 
 import javax.persistence.EntityManager;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
@@ -25,8 +41,19 @@ import static study.querydsl.entity.QTeam.*;
 @ToString
 public class MemberJpaRepository {
 
+    /**
+     * searchPage 정렬 키 => 경로, 임의의 경로를 허용하면 team.name 같은 값이 암묵적 inner join 을 만든다.
+     */
+    private static final Map<String, ComparableExpressionBase<?>> SORT_KEYS = Map.of(
+            "memberId", member.id,
+            "username", member.username,
+            "age", member.age,
+            "teamName", team.name
+    );
+
     private final EntityManager em;
     private final JPAQueryFactory query;
+    private final MemberSearchPlanCache searchPlanCache;
 
     public void save(Member member) {
         em.persist(member);
@@ -46,6 +73,26 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    /**
+     * findAll_Querydsl 의 스트림 버전
+     * fetchSize 단위 서버 커서 + read-only 엔티티, 다음 요소를 꺼내면 이전 요소는 detach 된다.
+     * 트랜잭션 안에서 사용하고 반드시 close 해야 한다.
+     */
+    public Stream<Member> streamAll_Querydsl(int fetchSize) {
+        return EntityStreams.detaching(em, cursorAll(fetchSize).stream());
+    }
+
+    public long forEach_Querydsl(int fetchSize, Consumer<Member> action) {
+        return EntityStreams.forEachDetached(em, cursorAll(fetchSize).stream(), action);
+    }
+
+    private JPAQuery<Member> cursorAll(int fetchSize) {
+        return query.selectFrom(member)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.CACHEABLE, false);
+    }
+
     public List<Member> findByUsername_Querydsl(String username) {
         return query.selectFrom(member)
                 .where(member.username.eq(username))
@@ -60,9 +107,60 @@ public class MemberJpaRepository {
                 .getResultList();
     }
 
+    /**
+     * 조건 모양별로 한 번 직렬화해 둔 jpql 을 재사용한다. (MemberSearchPlanCache)
+     */
     public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
-        BooleanBuilder builder = optionBuilder(condition);
+        return searchPlanCache.search(condition);
+    }
+
+    /**
+     * searchByBuilder 의 비동기 버전, 커넥션 풀 크기로 제한된 repositoryExecutor 에서 실행된다.
+     */
+    @Async(AsyncRepositoryConfig.EXECUTOR)
+    @Transactional(readOnly = true)
+    public CompletableFuture<List<MemberTeamDto>> searchByBuilderAsync(MemberSearchCondition condition) {
+        return CompletableFuture.completedFuture(searchByBuilder(condition));
+    }
+
+    /**
+     * searchByBuilder 의 페이징 버전
+     * 첫 페이지가 pageSize 보다 작거나 마지막 페이지면 count 쿼리를 실행하지 않고,
+     * count 쿼리는 팀 조건이 없으면 team 조인 없이 member 만 센다.
+     * 정렬은 SORT_KEYS 의 키(결과 dto 속성 이름)만 허용하고 없으면 member.id 순
+     * teamName 은 left join 한 team 으로 정렬하므로 팀이 없는 회원도 빠지지 않는다.
+     */
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = searchQuery(condition)
+                .orderBy(orderBy(pageable.getSort()))
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        JPAQuery<Long> countQuery = query.select(member.count())
+                .from(member);
+        if (hasText(condition.getTeamName())) {
+            countQuery.leftJoin(member.team, team);
+        }
+        countQuery.where(optionBuilder(condition));
+
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
 
+    /**
+     * searchByBuilder 의 스트림 버전, 결과를 모두 메모리에 올리지 않고 fetchSize 단위 서버 커서로 읽는다.
+     * DTO 라 영속성 컨텍스트에 쌓이지 않는다. 트랜잭션 안에서 사용하고 반드시 close 해야 한다.
+     */
+    public Stream<MemberTeamDto> searchStream(MemberSearchCondition condition, int fetchSize) {
+        return searchQuery(condition)
+                .orderBy(member.id.asc())
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .setHint(QueryHints.CACHEABLE, false)
+                .stream();
+    }
+
+    private JPAQuery<MemberTeamDto> searchQuery(MemberSearchCondition condition) {
         return query.select(new QMemberTeamDto(
                         member.id.as("memberId")
                         , member.username
@@ -72,8 +170,26 @@ public class MemberJpaRepository {
                 ))
                 .from(member)
                 .leftJoin(member.team, team)
-                .where(builder)
-                .fetch();
+                .where(optionBuilder(condition));
+    }
+
+    private static OrderSpecifier<?>[] orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return new OrderSpecifier<?>[]{member.id.asc()};
+        }
+
+        return sort.stream()
+                .map(MemberJpaRepository::orderBy)
+                .toArray(OrderSpecifier<?>[]::new);
+    }
+
+    private static OrderSpecifier<?> orderBy(Sort.Order order) {
+        ComparableExpressionBase<?> key = SORT_KEYS.get(order.getProperty());
+        if (key == null) {
+            throw new IllegalArgumentException("unsupported sort property: " + order.getProperty()
+                    + ", supported: " + SORT_KEYS.keySet());
+        }
+        return order.isAscending() ? key.asc() : key.desc();
     }
 
     private static BooleanBuilder optionBuilder(MemberSearchCondition condition) {
@@ -0,0 +1,194 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * MemberSearchCondition 의 모양(username / teamName / ageGoe / ageLoe 중 어떤 값이 있는지) 별로
+ * querydsl → jpql 변환을 한 번만 하고 이후에는 파라미터 값만 바인딩해서 실행한다.
+ * 매번 조립해도 querydsl 은 값을 파라미터로 바인딩하므로 모양이 같으면 jpql 도 같고, hibernate query plan 캐시는 원래도 모양별로 적중한다.
+ * 줄어드는 것은 호출마다의 BooleanBuilder 조립과 jpql 직렬화 비용뿐이다.
+ *
+ * member.search.plan{shape, result=hit|miss}, member.search{shape} 로 모양별 캐시 적중과 실행 시간을 기록한다.
+ */
+@Component
+public class MemberSearchPlanCache {
+
+    private static final Param<String> USERNAME = new Param<>(String.class, "username");
+    private static final Param<String> TEAM_NAME = new Param<>(String.class, "teamName");
+    private static final Param<Integer> AGE_GOE = new Param<>(Integer.class, "ageGoe");
+    private static final Param<Integer> AGE_LOE = new Param<>(Integer.class, "ageLoe");
+
+    private static final int SHAPES = 1 << 4;
+
+    private static final QMemberTeamDto PROJECTION = new QMemberTeamDto(
+            member.id.as("memberId")
+            , member.username
+            , member.age
+            , team.id.as("teamId")
+            , team.name.as("teamName")
+    );
+
+    private final EntityManager em;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 모양은 16가지뿐이므로 bit mask 를 index 로 쓰는 배열에 보관
+     */
+    private final Plan[] plans = new Plan[SHAPES];
+
+    public MemberSearchPlanCache(EntityManager em, MeterRegistry meterRegistry) {
+        this.em = em;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        int shape = shape(condition);
+        Plan plan = plan(shape);
+
+        return plan.timer.record(() -> {
+            Query query = em.createQuery(plan.jpql);
+            JPAUtil.setConstants(query, plan.constants, values(condition));
+
+            List<?> rows = query.getResultList();
+            List<MemberTeamDto> result = new ArrayList<>(rows.size());
+            for (Object row : rows) {
+                result.add(PROJECTION.newInstance((Object[]) row));
+            }
+            return result;
+        });
+    }
+
+    private Plan plan(int shape) {
+        Plan plan = plans[shape];
+        if (plan != null) {
+            plan.hits.increment();
+            return plan;
+        }
+
+        synchronized (plans) {
+            if (plans[shape] == null) {
+                plans[shape] = compile(shape);
+            } else {
+                plans[shape].hits.increment();
+            }
+            return plans[shape];
+        }
+    }
+
+    private Plan compile(int shape) {
+        BooleanBuilder builder = new BooleanBuilder();
+        if ((shape & 1) != 0) {
+            builder.and(member.username.eq(USERNAME));
+        }
+        if ((shape & 2) != 0) {
+            builder.and(team.name.eq(TEAM_NAME));
+        }
+        if ((shape & 4) != 0) {
+            builder.and(member.age.goe(AGE_GOE));
+        }
+        if ((shape & 8) != 0) {
+            builder.and(member.age.loe(AGE_LOE));
+        }
+
+        JPAQuery<MemberTeamDto> query = new JPAQuery<MemberTeamDto>(em)
+                .select(PROJECTION)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(builder);
+
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(em), em);
+        serializer.serialize(query.getMetadata(), false, null);
+
+        String name = shapeName(shape);
+        Plan plan = new Plan(serializer.toString(), serializer.getConstants(),
+                Counter.builder("member.search.plan").tag("shape", name).tag("result", "hit").register(meterRegistry),
+                Timer.builder("member.search").tag("shape", name).register(meterRegistry));
+
+        Counter.builder("member.search.plan").tag("shape", name).tag("result", "miss").register(meterRegistry).increment();
+        return plan;
+    }
+
+    private static Map<ParamExpression<?>, Object> values(MemberSearchCondition condition) {
+        Map<ParamExpression<?>, Object> values = new HashMap<>(8);
+        if (hasText(condition.getUsername())) {
+            values.put(USERNAME, condition.getUsername());
+        }
+        if (hasText(condition.getTeamName())) {
+            values.put(TEAM_NAME, condition.getTeamName());
+        }
+        if (condition.getAgeGoe() != null) {
+            values.put(AGE_GOE, condition.getAgeGoe());
+        }
+        if (condition.getAgeLoe() != null) {
+            values.put(AGE_LOE, condition.getAgeLoe());
+        }
+        return values;
+    }
+
+    private static int shape(MemberSearchCondition condition) {
+        int shape = 0;
+        if (hasText(condition.getUsername())) {
+            shape |= 1;
+        }
+        if (hasText(condition.getTeamName())) {
+            shape |= 2;
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= 4;
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= 8;
+        }
+        return shape;
+    }
+
+    private static String shapeName(int shape) {
+        StringJoiner name = new StringJoiner("+");
+        String[] fields = {"username", "teamName", "ageGoe", "ageLoe"};
+        for (int i = 0; i < fields.length; i++) {
+            if ((shape & (1 << i)) != 0) {
+                name.add(fields[i]);
+            }
+        }
+        return shape == 0 ? "none" : name.toString();
+    }
+
+    private static class Plan {
+        private final String jpql;
+        private final List<Object> constants;
+        private final Counter hits;
+        private final Timer timer;
+
+        private Plan(String jpql, List<Object> constants, Counter hits, Timer timer) {
+            this.jpql = jpql;
+            this.constants = constants;
+            this.hits = hits;
+            this.timer = timer;
+        }
+    }
+}
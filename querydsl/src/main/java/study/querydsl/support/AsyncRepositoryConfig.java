@@ -0,0 +1,42 @@
+package study.querydsl.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * @Async(AsyncRepositoryConfig.EXECUTOR) 가 붙은 CompletableFuture 조회 메서드는 요청 스레드 대신 repositoryExecutor 에서 실행된다.
+ * study 모듈 설정의 복사본, properties 등록만 다르다. (RepositoryExecutor 참고)
+ */
+@Slf4j
+@Configuration
+@EnableAsync
+@EnableConfigurationProperties(AsyncRepositoryProperties.class)
+public class AsyncRepositoryConfig {
+
+    public static final String EXECUTOR = "repositoryExecutor";
+
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    @Bean(name = EXECUTOR, destroyMethod = "shutdown")
+    public RepositoryExecutor repositoryExecutor(AsyncRepositoryProperties properties, Environment environment,
+                                                 MeterRegistry meterRegistry) {
+        int poolSize = properties.getPoolSize() > 0
+                ? properties.getPoolSize()
+                : environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, HIKARI_DEFAULT_POOL_SIZE);
+
+        if (properties.isVirtualThreads()) {
+            RepositoryExecutor executor = RepositoryExecutor.virtual(poolSize, properties.getQueueCapacity(), meterRegistry);
+            if (executor != null) {
+                return executor;
+            }
+            log.warn("virtual threads are not available on java {}, falling back to platform threads",
+                    System.getProperty("java.version"));
+        }
+        return RepositoryExecutor.platform(poolSize, properties.getQueueCapacity(), meterRegistry);
+    }
+}
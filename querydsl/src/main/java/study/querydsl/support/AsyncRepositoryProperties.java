@@ -0,0 +1,26 @@
+package study.querydsl.support;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.async")
+public class AsyncRepositoryProperties {
+
+    /**
+     * 동시에 실행할 조회 수, 0 이면 spring.datasource.hikari.maximum-pool-size 와 같게 맞춘다.
+     */
+    private int poolSize = 0;
+
+    /**
+     * 대기열 크기, 가득 차면 RejectedExecutionException (virtual thread 모드에서는 동시 실행 제한을 기다리는 작업 수)
+     */
+    private int queueCapacity = 100;
+
+    /**
+     * jdk 21 이상이면 작업마다 virtual thread 를 사용하고 동시 실행 수만 poolSize 로 제한한다.
+     */
+    private boolean virtualThreads = false;
+}
@@ -0,0 +1,65 @@
+package study.querydsl.support;
+
+import javax.persistence.EntityManager;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 대량 조회를 일정한 메모리로 처리하기 위한 유틸
+ * postgres 드라이버는 autocommit 이 꺼져 있을 때(트랜잭션 안)만 fetchSize 단위 서버 커서를 사용하므로
+ * 반드시 트랜잭션 안에서 호출하고 stream 은 try-with-resources 로 닫아야 한다.
+ */
+public final class EntityStreams {
+
+    private EntityStreams() {
+    }
+
+    /**
+     * 다음 엔티티를 꺼낼 때 이전 엔티티를 detach 해서 영속성 컨텍스트가 커지지 않게 한다.
+     * 따라서 스트림 요소는 다음 요소를 꺼내기 전까지만 영속 상태다.
+     */
+    public static <T> Stream<T> detaching(EntityManager em, Stream<T> source) {
+        Iterator<T> iterator = source.iterator();
+
+        Iterator<T> detaching = new Iterator<>() {
+            private T previous;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (previous != null) {
+                    em.detach(previous);
+                }
+                previous = iterator.next();
+                return previous;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(detaching, Spliterator.ORDERED), false)
+                .onClose(source::close);
+    }
+
+    /**
+     * 콜백 처리 후 바로 detach, 처리한 건수를 돌려준다.
+     */
+    public static <T> long forEachDetached(EntityManager em, Stream<T> source, Consumer<? super T> action) {
+        long count = 0;
+        try (source) {
+            for (Iterator<T> it = source.iterator(); it.hasNext(); ) {
+                T entity = it.next();
+                action.accept(entity);
+                em.detach(entity);
+                count++;
+            }
+        }
+        return count;
+    }
+}
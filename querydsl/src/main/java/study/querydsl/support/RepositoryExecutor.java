@@ -0,0 +1,159 @@
+package study.querydsl.support;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 비동기 리포지토리 조회용 executor, 동시 실행 수를 커넥션 풀 크기로 제한한다.
+ * <p>
+ * repository.executor.wait : 제출 후 실제 실행까지 기다린 시간 (대기열 + 동시 실행 제한)
+ * repository.executor.pending : 실행을 기다리는 작업 수
+ * <p>
+ * study 모듈의 com.springDataJpa.study.support.async.RepositoryExecutor 를 복사한 클래스다.
+ * 두 모듈은 공통 부모 없이 각자 settings.gradle 을 가진 별개의 빌드라서 공유 모듈을 둘 곳이 없으므로 복사해서 쓰고,
+ * 한쪽을 고치면 다른 쪽도 같이 고친다. (AsyncRepositoryConfig, AsyncRepositoryProperties 도 마찬가지)
+ */
+public class RepositoryExecutor extends AbstractExecutorService {
+
+    private static final String NAME = "repository";
+
+    private final ExecutorService delegate;
+
+    /**
+     * virtual thread 모드에서만 사용, 플랫폼 스레드 모드는 스레드 수가 곧 제한
+     */
+    private final Semaphore permits;
+
+    /**
+     * virtual thread 모드에서만 사용, 실행 중 + 대기 중 작업 수 (poolSize + queueCapacity) 제한
+     */
+    private final Semaphore admission;
+    private final Timer wait;
+
+    private RepositoryExecutor(ExecutorService delegate, Semaphore permits, Semaphore admission,
+                               Supplier<Number> pending, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.permits = permits;
+        this.admission = admission;
+        this.wait = Timer.builder(NAME + ".executor.wait")
+                .description("제출부터 실행 시작까지 대기 시간")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder(NAME + ".executor.pending", pending)
+                .description("실행을 기다리는 작업 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * poolSize 개의 플랫폼 스레드와 queueCapacity 크기의 대기열, 대기열이 차면 거절한다.
+     */
+    public static RepositoryExecutor platform(int poolSize, int queueCapacity, MeterRegistry meterRegistry) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, NAME, Collections.emptyList()).bindTo(meterRegistry);
+
+        return new RepositoryExecutor(executor, null, null, () -> executor.getQueue().size(), meterRegistry);
+    }
+
+    /**
+     * 작업마다 virtual thread 를 만들고 동시 실행 수를 poolSize 로 제한한다.
+     * 대기 중인 작업이 queueCapacity 를 넘으면 platform 과 같이 거절한다.
+     * jdk 21 미만이면 null
+     */
+    public static RepositoryExecutor virtual(int poolSize, int queueCapacity, MeterRegistry meterRegistry) {
+        ExecutorService executor;
+        try {
+            //java 11 로 컴파일하므로 리플렉션으로 호출
+            executor = (ExecutorService) java.util.concurrent.Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+
+        Semaphore permits = new Semaphore(poolSize, true);
+        Semaphore admission = new Semaphore(poolSize + queueCapacity);
+        return new RepositoryExecutor(executor, permits, admission, permits::getQueueLength, meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        long submitted = System.nanoTime();
+
+        if (admission == null) {
+            delegate.execute(() -> {
+                wait.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                command.run();
+            });
+            return;
+        }
+
+        if (!admission.tryAcquire()) {
+            throw new RejectedExecutionException("repository executor queue is full");
+        }
+        try {
+            delegate.execute(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    wait.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                    command.run();
+                } finally {
+                    permits.release();
+                    admission.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            admission.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, NAME + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package study.querydsl.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Stream;
+
+/**
+ * 리포지토리 메서드 실행 시간(repository.invocations) 과 돌려준 row 수(repository.rows) 를 기록한다.
+ * CompletableFuture 결과는 완료될 때 기록하고, Stream / Iterator / 숫자 결과(count, bulk update) 는 row 수를 기록하지 않는다.
+ */
+@Component
+public class RepositoryMetrics {
+
+    public static final String INVOCATIONS = "repository.invocations";
+    public static final String ROWS = "repository.rows";
+
+    private final MeterRegistry meterRegistry;
+
+    public RepositoryMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Object record(String repository, String method, boolean timed, Invocation invocation) throws Throwable {
+        Timer.Sample sample = timed ? Timer.start(meterRegistry) : null;
+
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable e) {
+            stop(sample, repository, method, e);
+            throw e;
+        }
+
+        if (result instanceof CompletionStage) {
+            return ((CompletionStage<?>) result).whenComplete((value, e) -> {
+                stop(sample, repository, method, e);
+                if (e == null) {
+                    recordRows(repository, method, value);
+                }
+            });
+        }
+
+        stop(sample, repository, method, null);
+        recordRows(repository, method, result);
+        return result;
+    }
+
+    private void stop(Timer.Sample sample, String repository, String method, Throwable error) {
+        if (sample == null) {
+            return;
+        }
+        sample.stop(Timer.builder(INVOCATIONS)
+                .tags("repository", repository, "method", method,
+                        "exception", error == null ? "None" : error.getClass().getSimpleName())
+                .register(meterRegistry));
+    }
+
+    private void recordRows(String repository, String method, Object result) {
+        long rows = rows(result);
+        if (rows >= 0) {
+            DistributionSummary.builder(ROWS)
+                    .baseUnit("rows")
+                    .tags("repository", repository, "method", method)
+                    .register(meterRegistry)
+                    .record(rows);
+        }
+    }
+
+    /**
+     * 알 수 없으면 -1
+     */
+    static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Stream || result instanceof Iterator || result instanceof CompletionStage
+                || result instanceof Number || result instanceof Boolean) {
+            return -1;
+        }
+        return 1;
+    }
+
+    @FunctionalInterface
+    public interface Invocation {
+        Object proceed() throws Throwable;
+    }
+}
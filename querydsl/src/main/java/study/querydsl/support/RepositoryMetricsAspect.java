@@ -0,0 +1,28 @@
+package study.querydsl.support;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * repository 패키지의 @Repository 클래스 public 메서드 실행 시간과 row 수를 기록한다.
+ */
+@Aspect
+@Component
+public class RepositoryMetricsAspect {
+
+    private final RepositoryMetrics repositoryMetrics;
+
+    public RepositoryMetricsAspect(RepositoryMetrics repositoryMetrics) {
+        this.repositoryMetrics = repositoryMetrics;
+    }
+
+    @Around("within(study.querydsl.repository..*)" +
+            " && @within(org.springframework.stereotype.Repository)" +
+            " && execution(public * *(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        return repositoryMetrics.record(joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                joinPoint.getSignature().getName(), true, joinPoint::proceed);
+    }
+}
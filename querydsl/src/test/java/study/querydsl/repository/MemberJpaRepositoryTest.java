@@ -1,18 +1,32 @@
 package study.querydsl.repository;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.support.RepositoryMetrics;
 
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -28,6 +42,12 @@ class MemberJpaRepositoryTest {
     @Autowired
     MemberJpaRepository memberJpaRepository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
     @Test
     public void basicTest() {
         Member member = new Member("member1", 10);
@@ -58,6 +78,24 @@ class MemberJpaRepositoryTest {
         assertThat(result2).containsExactly(member);
     }
 
+    @Test
+    public void streamQuerydslTest() {
+        memberJpaRepository.save(new Member("member1", 10));
+        memberJpaRepository.save(new Member("member2", 20));
+        em.flush();
+        em.clear();
+
+        List<Member> result;
+        try (Stream<Member> stream = memberJpaRepository.streamAll_Querydsl(1)) {
+            result = stream.collect(Collectors.toList());
+        }
+        assertThat(result).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+
+        long count = memberJpaRepository.forEach_Querydsl(1, m -> log.info("member = {}", m));
+        assertThat(count).isEqualTo(2);
+        assertThat(result).noneMatch(em::contains);
+    }
+
     @Test
     public void searchTest() {
         Team teamA = new Team("teamA");
@@ -89,4 +127,143 @@ class MemberJpaRepositoryTest {
 
         assertThat(result).extracting("username").containsExactly("member1");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void searchPageTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("member" + i, i * 10, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        Page<MemberTeamDto> first = memberJpaRepository.searchPage(condition, PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age")));
+        assertThat(first.getContent()).extracting("username").containsExactly("member5", "member4", "member3");
+        assertThat(first.getTotalElements()).isEqualTo(4);
+
+        condition.setTeamName("teamA");
+        Page<MemberTeamDto> teamPage = memberJpaRepository.searchPage(condition, PageRequest.of(0, 10));
+        assertThat(teamPage.getContent()).extracting("teamName").containsOnly("teamA");
+        assertThat(teamPage.getTotalElements()).isEqualTo(2);
+
+        List<MemberTeamDto> streamed;
+        try (Stream<MemberTeamDto> stream = memberJpaRepository.searchStream(condition, 1)) {
+            streamed = stream.collect(Collectors.toList());
+        }
+        assertThat(streamed).extracting("username").containsExactly("member2", "member4");
+    }
+
+    /**
+     * teamName 정렬은 left join 한 team 을 쓰므로 팀 없는 회원도 content 와 count 가 맞는다.
+     * 허용하지 않은 정렬 키는 쿼리를 만들기 전에 거절한다.
+     */
+    @Test
+    public void searchPageSort() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamB));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30));
+        em.flush();
+        em.clear();
+
+        Page<MemberTeamDto> page = memberJpaRepository.searchPage(new MemberSearchCondition(),
+                PageRequest.of(0, 2, Sort.by("teamName", "memberId")));
+        assertThat(page.getTotalElements()).isEqualTo(3);
+
+        Page<MemberTeamDto> next = memberJpaRepository.searchPage(new MemberSearchCondition(), page.nextPageable());
+        assertThat(next.getContent()).hasSize(1);
+        assertThat(page.getContent()).extracting("username").doesNotContainAnyElementsOf(
+                next.getContent().stream().map(MemberTeamDto::getUsername).collect(Collectors.toList()));
+
+        assertThatThrownBy(() -> memberJpaRepository.searchPage(new MemberSearchCondition(),
+                PageRequest.of(0, 2, Sort.by("team.name"))))
+                .hasRootCauseInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unsupported sort property: team.name");
+    }
+
+    @Test
+    public void searchPlanCacheTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30));
+        em.flush();
+        em.clear();
+
+        double hits = planHits("teamName+ageGoe");
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(15);
+        assertThat(memberJpaRepository.searchByBuilder(condition)).extracting("username").containsExactly("member2");
+
+        //같은 모양, 다른 값
+        condition.setAgeGoe(5);
+        assertThat(memberJpaRepository.searchByBuilder(condition)).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+        assertThat(planHits("teamName+ageGoe")).isGreaterThan(hits);
+
+        assertThat(memberJpaRepository.searchByBuilder(new MemberSearchCondition())).hasSize(3);
+    }
+
+    private double planHits(String shape) {
+        Counter counter = meterRegistry.find("member.search.plan").tag("shape", shape).tag("result", "hit").counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public void searchByBuilderAsyncTest() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            em.persist(new Member("member1", 10, teamA));
+            em.persist(new Member("member2", 20, teamA));
+        });
+
+        try {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setTeamName("teamA");
+            condition.setAgeGoe(15);
+
+            List<MemberTeamDto> result = memberJpaRepository.searchByBuilderAsync(condition).get(5, TimeUnit.SECONDS);
+            assertThat(result).extracting("username").containsExactly("member2");
+            assertThat(meterRegistry.get("repository.executor.wait").timer().count()).isPositive();
+        } finally {
+            tx.executeWithoutResult(status -> {
+                em.createQuery("delete from Member").executeUpdate();
+                em.createQuery("delete from Team").executeUpdate();
+            });
+        }
+    }
+
+    @Test
+    public void repositoryMetricsTest() {
+        memberJpaRepository.save(new Member("member1", 10));
+        memberJpaRepository.save(new Member("member2", 20));
+        Timer timer = meterRegistry.timer(RepositoryMetrics.INVOCATIONS,
+                "repository", "MemberJpaRepository", "method", "findAll_Querydsl", "exception", "None");
+        DistributionSummary rows = meterRegistry.summary(RepositoryMetrics.ROWS,
+                "repository", "MemberJpaRepository", "method", "findAll_Querydsl");
+        long invocations = timer.count();
+        double totalRows = rows.totalAmount();
+
+        memberJpaRepository.findAll_Querydsl();
+
+        assertThat(timer.count() - invocations).isEqualTo(1);
+        assertThat(rows.totalAmount() - totalRows).isEqualTo(2);
+        assertThat(meterRegistry.get("hikaricp.connections.acquire").timer().count()).isPositive();
+        assertThat(em.getEntityManagerFactory().getProperties()).containsEntry(AvailableSettings.LOG_SLOW_QUERY, "0");
+    }
+}
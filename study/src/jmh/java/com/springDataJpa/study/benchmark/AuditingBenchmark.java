@@ -0,0 +1,69 @@
+package com.springDataJpa.study.benchmark;
+
+import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.support.audit.AuditListener;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * 엔티티 한 건당 감사 필드 설정 비용 (ops = 1 entity)
+ * springAuditingHandler 는 AuditingEntityListener 가 호출하는 경로(매핑 메타데이터 + 리플렉션),
+ * auditListener 는 트랜잭션 시계 + 직접 호출
+ * insert 까지 포함한 row 당 비용은 BulkInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(AuditingBenchmark.ENTITIES)
+public class AuditingBenchmark {
+
+    static final int ENTITIES = 1_000;
+
+    private ConfigurableApplicationContext context;
+    private AuditingHandler auditingHandler;
+    private AuditListener auditListener;
+    private TransactionTemplate tx;
+    private Member[] members;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("auditing");
+        auditingHandler = context.getBean(AuditingHandler.class);
+        auditListener = context.getBean(AuditListener.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        members = IntStream.range(0, ENTITIES)
+                .mapToObj(i -> new Member("member" + i, i % 100))
+                .toArray(Member[]::new);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object springAuditingHandler() {
+        return tx.execute(status -> {
+            for (Member member : members) {
+                auditingHandler.markCreated(member);
+            }
+            return members;
+        });
+    }
+
+    @Benchmark
+    public Object auditListener() {
+        return tx.execute(status -> {
+            for (Member member : members) {
+                auditListener.prePersist(member);
+            }
+            return members;
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.springDataJpa.study.benchmark;
+
+import com.springDataJpa.study.StudyApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 스프링 컨텍스트, postgres 대신 in-process H2 를 사용한다.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * application.yml 보다 우선하도록 command line 인자로 넘긴다.
+     */
+    static ConfigurableApplicationContext start(String database, String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.url=jdbc:h2:mem:" + database
+                        + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.open-in-view=false",
+                "logging.level.org.hibernate.SQL=off",
+                "logging.level.root=warn"));
+        args.addAll(List.of(properties));
+
+        return new SpringApplicationBuilder(StudyApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.stream().map(arg -> "--" + arg).toArray(String[]::new));
+    }
+}
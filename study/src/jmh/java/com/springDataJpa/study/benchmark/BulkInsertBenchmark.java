@@ -0,0 +1,67 @@
+package com.springDataJpa.study.benchmark;
+
+import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.jpaRepository.MemberJpaRepository;
+import com.springDataJpa.study.repository.MemberRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * saveAll 과 saveAllBatched 의 insert 처리량, 결과는 row 단위(ops = 1 row)
+ * 감사 필드(AuditListener) 설정 비용 포함, 감사 필드만의 비용은 AuditingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(BulkInsertBenchmark.ROWS)
+public class BulkInsertBenchmark {
+
+    static final int ROWS = 5_000;
+
+    @Param({"50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberJpaRepository memberJpaRepository;
+    private TransactionTemplate tx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("bulk_insert", "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        tx.executeWithoutResult(status -> memberRepository.deleteAllInBatch());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object saveAll() {
+        return tx.execute(status -> memberRepository.saveAll(members().collect(Collectors.toList())));
+    }
+
+    @Benchmark
+    public Object saveAllBatched() {
+        return tx.execute(status -> memberJpaRepository.saveAllBatched(members(), batchSize));
+    }
+
+    private static Stream<Member> members() {
+        return IntStream.range(0, ROWS).mapToObj(i -> new Member("member" + i, i % 100));
+    }
+}
@@ -0,0 +1,85 @@
+package com.springDataJpa.study.benchmark;
+
+import com.springDataJpa.study.dto.NestedClosedProjections;
+import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.entity.Team;
+import com.springDataJpa.study.jpaRepository.MemberJpaRepository;
+import com.springDataJpa.study.jpaRepository.TeamJpaRepository;
+import com.springDataJpa.study.repository.MemberRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 같은 username 을 가진 회원 ROWS 명을 NestedClosedProjections 로 조회하고 getter 를 모두 호출한다.
+ * springDataProjection => member / team 엔티티를 읽고 spring data 프로젝션 프록시로 감싼다. (jdk proxy + Map 조회)
+ * closedProjections    => ClosedProjections (username, team.name 만 select, 생성된 클래스)
+ * ./gradlew jmh -Pjmh.includes=ClosedProjectionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ClosedProjectionBenchmark {
+
+    private static final int ROWS = 500;
+    private static final String USERNAME = "member";
+
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("closed_projection");
+        memberRepository = context.getBean(MemberRepository.class);
+
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        tx.executeWithoutResult(status -> {
+            List<Team> teams = IntStream.range(0, 10)
+                    .mapToObj(i -> new Team("team" + i))
+                    .collect(Collectors.toList());
+            context.getBean(TeamJpaRepository.class).saveAllBatched(teams.stream(), 50);
+            context.getBean(MemberJpaRepository.class).saveAllBatched(IntStream.range(0, ROWS)
+                    .mapToObj(i -> new Member(USERNAME, i % 100, teams.get(i % teams.size()))), 50);
+        });
+
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void springDataProjection(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> consume(memberRepository.findEntityGraphByUsername(USERNAME).stream()
+                .map(m -> projectionFactory.createProjection(NestedClosedProjections.class, m))
+                .collect(Collectors.toList()), blackhole));
+    }
+
+    @Benchmark
+    public void closedProjections(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> consume(
+                memberRepository.findProjectionsByUsername(USERNAME, NestedClosedProjections.class), blackhole));
+    }
+
+    private static void consume(List<NestedClosedProjections> rows, Blackhole blackhole) {
+        for (NestedClosedProjections row : rows) {
+            blackhole.consume(row.getUsername());
+            blackhole.consume(row.getTeam().getName());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.springDataJpa.study.benchmark;
+
+import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.entity.Team;
+import com.springDataJpa.study.jpaRepository.MemberJpaRepository;
+import com.springDataJpa.study.jpaRepository.TeamJpaRepository;
+import com.springDataJpa.study.repository.MemberRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * MemberRepository 조회 경로별 처리량
+ * ./gradlew jmh -Pjmh.includes=MemberRepositoryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberRepositoryBenchmark {
+
+    private static final int TEAMS = 100;
+    private static final int MEMBERS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("member_repository");
+        memberRepository = context.getBean(MemberRepository.class);
+
+        TransactionTemplate tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        tx.executeWithoutResult(status -> {
+            List<Team> teams = IntStream.range(0, TEAMS)
+                    .mapToObj(i -> new Team("team" + i))
+                    .collect(Collectors.toList());
+            context.getBean(TeamJpaRepository.class).saveAllBatched(teams.stream(), 50);
+
+            context.getBean(MemberJpaRepository.class).saveAllBatched(IntStream.range(0, MEMBERS)
+                    .mapToObj(i -> new Member("member" + i, i % 100, teams.get(i % TEAMS))), 50);
+        });
+
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> derivedQuery() {
+        return memberRepository.findByUsernameAndAgeGreaterThan(randomUsername(), 10);
+    }
+
+    @Benchmark
+    public List<Member> jpqlQuery() {
+        int i = ThreadLocalRandom.current().nextInt(MEMBERS);
+        return memberRepository.findUser("member" + i, i % 100);
+    }
+
+    /**
+     * fetch join 과 entity graph 는 같은 결과이므로 team 까지 접근해서 비교한다.
+     */
+    @Benchmark
+    @Measurement(iterations = 3)
+    public void fetchJoin(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> memberRepository.findMemberFetchJoin()
+                .forEach(m -> blackhole.consume(m.getTeam().getName())));
+    }
+
+    @Benchmark
+    @Measurement(iterations = 3)
+    public void entityGraph(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> memberRepository.findMemberEntityGraph()
+                .forEach(m -> blackhole.consume(m.getTeam().getName())));
+    }
+
+    @Benchmark
+    @Measurement(iterations = 3)
+    public Object dtoProjection() {
+        return memberRepository.findMemberDto();
+    }
+
+    @Benchmark
+    public Object classProjection() {
+        return memberRepository.findProjectionsDtoByUsername(randomUsername());
+    }
+
+    private static String randomUsername() {
+        return "member" + ThreadLocalRandom.current().nextInt(MEMBERS);
+    }
+}
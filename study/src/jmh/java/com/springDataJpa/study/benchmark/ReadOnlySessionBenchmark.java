@@ -0,0 +1,121 @@
+package com.springDataJpa.study.benchmark;
+
+import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.entity.Team;
+import com.springDataJpa.study.jpaRepository.MemberJpaRepository;
+import com.springDataJpa.study.jpaRepository.TeamJpaRepository;
+import com.springDataJpa.study.support.readonly.ReadOnlySessionSupport;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 같은 조회(회원 + 팀 fetch join)를 세션 모드별로 비교
+ * 일반 세션은 엔티티마다 dirty checking 용 스냅샷을 만들고, 쓰기 트랜잭션은 커밋 시 전체를 비교한다.
+ * heap 은 gc profiler 의 gc.alloc.rate.norm (호출 한 번당 할당량) 을 본다.
+ * ./gradlew jmh -Pjmh.includes=ReadOnlySessionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Measurement(iterations = 3)
+public class ReadOnlySessionBenchmark {
+
+    private static final int TEAMS = 100;
+    private static final int MEMBERS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager sharedEntityManager;
+    private ReadOnlySessionSupport readOnlySessionSupport;
+    private TransactionTemplate writable;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("read_only_session");
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        sharedEntityManager = context.getBean(EntityManager.class);
+        readOnlySessionSupport = context.getBean(ReadOnlySessionSupport.class);
+
+        writable = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        writable.executeWithoutResult(status -> {
+            List<Team> teams = IntStream.range(0, TEAMS)
+                    .mapToObj(i -> new Team("team" + i))
+                    .collect(Collectors.toList());
+            context.getBean(TeamJpaRepository.class).saveAllBatched(teams.stream(), 50);
+
+            context.getBean(MemberJpaRepository.class).saveAllBatched(IntStream.range(0, MEMBERS)
+                    .mapToObj(i -> new Member("member" + i, i % 100, teams.get(i % TEAMS))), 50);
+        });
+
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void writableTransaction(Blackhole blackhole) {
+        writable.executeWithoutResult(status -> load(blackhole));
+    }
+
+    @Benchmark
+    public void readOnlyTransaction(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> load(blackhole));
+    }
+
+    /**
+     * 트랜잭션 밖 open-in-view 세션 (ReadOnlySessionRequestInterceptor 를 끈 GET 요청)
+     */
+    @Benchmark
+    public void openInView(Blackhole blackhole) {
+        inOpenInView(em -> load(blackhole));
+    }
+
+    @Benchmark
+    public void openInViewReadOnlySession(Blackhole blackhole) {
+        inOpenInView(em -> {
+            ReadOnlySessionSupport.Scope scope = readOnlySessionSupport.open();
+            try {
+                load(blackhole);
+            } finally {
+                if (scope != null) {
+                    scope.close();
+                }
+            }
+        });
+    }
+
+    private void load(Blackhole blackhole) {
+        sharedEntityManager.createQuery("select m from Member m join fetch m.team", Member.class)
+                .getResultList()
+                .forEach(m -> blackhole.consume(m.getTeam().getName()));
+    }
+
+    private void inOpenInView(Consumer<EntityManager> action) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(em));
+        try {
+            action.accept(em);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            em.close();
+        }
+    }
+}
@@ -1,25 +1,36 @@
 package com.springDataJpa.study;
 
+import com.springDataJpa.study.support.audit.AuditConfig;
+import com.springDataJpa.study.support.audit.CachedAuditorAware;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
-import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 @SpringBootApplication
-@EnableJpaAuditing
+@EnableJpaAuditing(dateTimeProviderRef = AuditConfig.DATE_TIME_PROVIDER)
+@ConfigurationPropertiesScan
 public class StudyApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(StudyApplication.class, args);
 	}
 
+	/**
+	 * 트랜잭션마다 한 번만 만든다.
+	 * UUID.randomUUID() 는 SecureRandom 을 사용해서 엔트로피가 부족하면 블로킹될 수 있으므로 ThreadLocalRandom 으로 만든다.
+	 */
 	@Bean
 	public AuditorAware<String> auditorProvider() {
-		return () -> Optional.of(UUID.randomUUID().toString());
+		return new CachedAuditorAware(() -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			return new UUID(random.nextLong(), random.nextLong()).toString();
+		});
 	}
 
 }
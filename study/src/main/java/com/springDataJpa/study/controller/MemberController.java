@@ -2,21 +2,36 @@ package com.springDataJpa.study.controller;
 
 import com.springDataJpa.study.entity.Member;
 import com.springDataJpa.study.repository.MemberRepository;
+import com.springDataJpa.study.support.paging.MemberCursor;
+import com.springDataJpa.study.support.paging.Window;
+import com.springDataJpa.study.support.readonly.ReadOnlySession;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import javax.annotation.PostConstruct;
 import java.util.Optional;
 
+/**
+ * 조회 전용 컨트롤러, 조회한 엔티티의 스냅샷을 만들지 않는다. (@ReadOnlySession)
+ */
 @RestController
 @RequiredArgsConstructor
+@ReadOnlySession
 public class MemberController {
+    /**
+     * spring.data.web.pageable.max-page-size 와 동일한 상한
+     */
+    private static final int MAX_WINDOW_SIZE = 2000;
+
     private final MemberRepository memberRepository;
 
     @PostConstruct
@@ -42,4 +57,21 @@ public class MemberController {
     public Page<Member> list(@PageableDefault(size = 5) Pageable pageable) {
         return memberRepository.findAll(pageable);
     }
+
+    /**
+     * keyset 페이징, 첫 요청은 after 를 비워서 보낸다. (/members?after=)
+     * 응답의 nextCursor 를 다음 요청의 after 로 넘긴다.
+     */
+    @GetMapping(value = "/members", params = "after")
+    public Window<Member> listAfter(@RequestParam("after") String after,
+                                    @RequestParam(value = "size", defaultValue = "5") int size) {
+        MemberCursor cursor;
+        try {
+            cursor = MemberCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        return memberRepository.findMemberWindow(cursor, Math.max(1, Math.min(size, MAX_WINDOW_SIZE)));
+    }
 }
@@ -1,21 +1,34 @@
 package com.springDataJpa.study.entity;
 
+import com.springDataJpa.study.support.audit.AuditListener;
+import com.springDataJpa.study.support.audit.AuditedEntity;
 import lombok.Getter;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.Version;
 import java.time.LocalDateTime;
 
-@EntityListeners(AuditingEntityListener.class)
+/**
+ * createdDate / updatedDate 는 AuditListener 가 채운다. (같은 트랜잭션이면 같은 시각)
+ * 어노테이션은 감사 컬럼 표시용으로 남겨 둔다.
+ */
+@EntityListeners(AuditListener.class)
 @MappedSuperclass
 @Getter
-public class BaseEntity {
+public class BaseEntity implements AuditedEntity {
+
+    /**
+     * 낙관적 잠금, 다른 트랜잭션이 먼저 수정했으면 update 시 OptimisticLockException
+     * null 이면 새 엔티티로 판단한다. (save 시 merge 대신 persist)
+     */
+    @Version
+    private Long version;
 
     @CreatedDate
     @Column(updatable = false)
@@ -24,6 +37,17 @@ public class BaseEntity {
     @LastModifiedDate
     private LocalDateTime updatedDate;
 
+    @Override
+    public void auditCreated(LocalDateTime now) {
+        createdDate = now;
+        updatedDate = now;
+    }
+
+    @Override
+    public void auditUpdated(LocalDateTime now) {
+        updatedDate = now;
+    }
+
 //    @CreatedBy
 //    @Column(updatable = false)
 //    private String createdBy;
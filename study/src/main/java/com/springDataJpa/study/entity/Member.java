@@ -1,10 +1,17 @@
 package com.springDataJpa.study.entity;
 
+import com.springDataJpa.study.support.example.ExampleIndex;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.List;
 
+/**
+ * Team.members 2차 캐시는 member id 만 저장하므로 Member 도 캐시해야 컬렉션 적중 시 member 를 하나씩 조회하지 않는다.
+ * 대신 member 를 쓸 때마다 Member region 갱신(READ_WRITE soft lock) 비용이 든다.
+ */
 @Entity
 @Getter
 @Setter
@@ -16,12 +23,28 @@ import java.util.List;
                 "where m.username = :username"
 )
 @NamedEntityGraph(name = "Member.all", attributeNodes = @NamedAttributeNode("team"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = {
+        @Index(name = "idx_member_username_id", columnList = "username, member_id"),
+        @Index(name = "idx_member_age_username_id", columnList = "age, username, member_id")
+})
 public class Member extends BaseEntity{
 
+    /**
+     * allocationSize 만큼 시퀀스를 미리 할당(pooled optimizer)해서 insert 마다 nextval 을 호출하지 않고
+     * IDENTITY 와 달리 jdbc batch insert 가 가능하다.
+     */
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "member_id")
     private Long id;
+
+    /**
+     * Query by Example 의 username 부분 일치(STARTING / CONTAINING, ignoreCase) 용 인덱스
+     */
+    @ExampleIndex(value = {ExampleIndex.Type.PREFIX, ExampleIndex.Type.TRIGRAM}, ignoreCase = true)
     private String username;
 
     private int age;
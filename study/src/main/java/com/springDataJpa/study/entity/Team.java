@@ -1,6 +1,10 @@
 package com.springDataJpa.study.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -11,15 +15,26 @@ import java.util.List;
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Team extends BaseEntity{
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
     @Column(name = "team_id")
     private Long id;
 
     private String name;
 
+    /**
+     * 처음 접근할 때 같은 쿼리로 읽은 모든 team 의 members 를 subselect 한 번으로 초기화한다.
+     * subselect 는 원래 쿼리의 limit 을 무시하므로 team 페이징 목록에서 members 가 필요하면
+     * TeamRepository#findPageWithMembers 처럼 team id 를 먼저 페이징한 뒤 fetch join 하는 방식을 사용한다.
+     * 2차 캐시에는 member id 만 저장되고 member 는 Member region 에서 읽는다.
+     */
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    @Fetch(FetchMode.SUBSELECT)
     @OneToMany(fetch = FetchType.LAZY
             , mappedBy = "team")
     private List<Member> members = new ArrayList<>();
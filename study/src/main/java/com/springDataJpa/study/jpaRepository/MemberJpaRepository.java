@@ -1,24 +1,50 @@
 package com.springDataJpa.study.jpaRepository;
 
 import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.support.async.AsyncRepositoryConfig;
+import com.springDataJpa.study.support.bulk.BulkUpdate;
+import com.springDataJpa.study.support.bulk.BulkUpdateProgress;
+import com.springDataJpa.study.support.bulk.ChunkedBulkUpdater;
+import com.springDataJpa.study.support.paging.MemberCursor;
+import com.springDataJpa.study.support.paging.Window;
+import com.springDataJpa.study.support.stream.EntityStreams;
 import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
 public class MemberJpaRepository{
 
     private final EntityManager em;
+    private final ChunkedBulkUpdater chunkedBulkUpdater;
 
     public Member save(Member member) {
         em.persist(member);
         return member;
     }
 
+    /**
+     * 대량 insert 용, batchSize 건마다 flush / clear 한다. (EntityStreams#persistBatched)
+     * 호출하는 쪽의 트랜잭션 안에서 실행되어야 하며 clear 이후 넘겨준 엔티티는 준영속 상태가 된다.
+     *
+     * @param members
+     * @param batchSize 1 이상
+     * @return 저장한 건수
+     */
+    public long saveAllBatched(Stream<Member> members, int batchSize) {
+        return EntityStreams.persistBatched(em, members, batchSize);
+    }
+
     public Member find(Long id) {
         return em.find(Member.class, id);
     }
@@ -32,6 +58,21 @@ public class MemberJpaRepository{
                 .getResultList();
     }
 
+    /**
+     * findAll 의 스트림 버전, 트랜잭션 안에서 사용하고 반드시 close 해야 한다.
+     */
+    public Stream<Member> streamAll(int fetchSize) {
+        return EntityStreams.detaching(em, allCursor(fetchSize).getResultStream());
+    }
+
+    public long forEachMember(int fetchSize, Consumer<Member> action) {
+        return EntityStreams.forEachDetached(em, allCursor(fetchSize).getResultStream(), action);
+    }
+
+    private TypedQuery<Member> allCursor(int fetchSize) {
+        return EntityStreams.cursorHints(em.createQuery("select m from Member m", Member.class), fetchSize);
+    }
+
     public Optional<Member> findById(Long id) {
         return Optional.ofNullable(find(id));
     }
@@ -57,6 +98,15 @@ public class MemberJpaRepository{
                 .getResultList();
     }
 
+    /**
+     * findByUsername 의 비동기 버전, 커넥션 풀 크기로 제한된 repositoryExecutor 에서 실행된다.
+     */
+    @Async(AsyncRepositoryConfig.EXECUTOR)
+    @Transactional(readOnly = true)
+    public CompletableFuture<List<Member>> findByUsernameAsync(String username) {
+        return CompletableFuture.completedFuture(findByUsername(username));
+    }
+
     public List<Member> findByPage(int age, int offset, int limit) {
         return em.createQuery("select m from Member m" +
                         " where m.age = :age" +
@@ -67,6 +117,51 @@ public class MemberJpaRepository{
                 .getResultList();
     }
 
+    /**
+     * findByPage 와 같은 username desc 정렬을 유지하면서 offset 대신 마지막 (username, member_id) 이후를 조회
+     * 페이지 깊이와 상관없이 index range scan 으로 limit 건만 읽는다.
+     *
+     * @param age
+     * @param after null 이면 첫 window
+     * @param limit
+     * @return
+     */
+    public Window<Member> findByPageAfter(int age, MemberCursor after, int limit) {
+        TypedQuery<Member> query;
+
+        if (after == null) {
+            query = em.createQuery("select m from Member m" +
+                    " where m.age = :age" +
+                    " order by m.username desc nulls first, m.id desc", Member.class);
+        } else if (after.getUsername() == null) {
+            query = em.createQuery("select m from Member m" +
+                            " where m.age = :age" +
+                            " and ((m.username is null and m.id < :id) or m.username is not null)" +
+                            " order by m.username desc nulls first, m.id desc", Member.class)
+                    .setParameter("id", after.getId());
+        } else {
+            query = em.createQuery("select m from Member m" +
+                            " where m.age = :age" +
+                            " and (m.username < :username" +
+                            " or (m.username = :username and m.id < :id))" +
+                            " order by m.username desc nulls first, m.id desc", Member.class)
+                    .setParameter("username", after.getUsername())
+                    .setParameter("id", after.getId());
+        }
+
+        List<Member> rows = query.setParameter("age", age)
+                .setMaxResults(limit + 1)
+                .getResultList();
+
+        return Window.of(rows, limit, m -> MemberCursor.of(m).encode());
+    }
+
+    @Async(AsyncRepositoryConfig.EXECUTOR)
+    @Transactional(readOnly = true)
+    public CompletableFuture<List<Member>> findByPageAsync(int age, int offset, int limit) {
+        return CompletableFuture.completedFuture(findByPage(age, offset, limit));
+    }
+
     public long totalCount(int age) {
         return em.createQuery("select count(m) from Member m" +
                         " where m.age = :age", Long.class)
@@ -74,10 +169,27 @@ public class MemberJpaRepository{
                 .getSingleResult();
     }
 
+    /**
+     * age 이상인 회원의 나이를 1 증가시킨다. member_id 범위 chunk 단위로 나눠서 실행된다. (ChunkedBulkUpdater)
+     */
     public int bulkAgePlus(int age) {
-        return em.createQuery("update Member m set m.age = m.age + 1 " +
-                        "where m.age >= :age")
-                .setParameter("age", age)
-                .executeUpdate();
+        return (int) bulkAgePlus(age, null, progress -> {
+        });
+    }
+
+    /**
+     * @param jobName null 이 아니면 실패한 같은 이름의 작업을 마지막으로 커밋된 key 이후부터 이어서 실행
+     * @param progressListener chunk 가 끝날 때마다 호출
+     * @return 변경된 전체 건수
+     */
+    public long bulkAgePlus(int age, String jobName, Consumer<BulkUpdateProgress> progressListener) {
+        return chunkedBulkUpdater.execute(BulkUpdate.builder()
+                .entityType(Member.class)
+                .set("e.age = e.age + 1")
+                .where("e.age >= :age")
+                .parameter("age", age)
+                .jobName(jobName)
+                .progressListener(progressListener)
+                .build());
     }
 }
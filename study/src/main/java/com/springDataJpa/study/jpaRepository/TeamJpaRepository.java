@@ -1,12 +1,16 @@
 package com.springDataJpa.study.jpaRepository;
 
 import com.springDataJpa.study.entity.Team;
+import com.springDataJpa.study.support.stream.EntityStreams;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
@@ -19,6 +23,13 @@ public class TeamJpaRepository {
         return team;
     }
 
+    /**
+     * MemberJpaRepository#saveAllBatched 와 동일 (EntityStreams#persistBatched)
+     */
+    public long saveAllBatched(Stream<Team> teams, int batchSize) {
+        return EntityStreams.persistBatched(em, teams, batchSize);
+    }
+
     public void delete(Team team) {
         em.remove(team);
     }
@@ -36,6 +47,29 @@ public class TeamJpaRepository {
         return Optional.ofNullable(find(id));
     }
 
+    /**
+     * members 를 fetch join 한 team 페이지 (team_id 순)
+     * team id 를 먼저 offset / limit 으로 조회한 뒤 해당 team 들만 fetch join 해서 메모리 페이징(HHH000104)을 피한다.
+     */
+    public List<Team> findPageWithMembers(int offset, int limit) {
+        List<Long> ids = em.createQuery("select t.id from Team t order by t.id", Long.class)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        return em.createQuery("select distinct t from Team t" +
+                        " left join fetch t.members" +
+                        " where t.id in :ids" +
+                        " order by t.id", Team.class)
+                .setParameter("ids", ids)
+                .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                .getResultList();
+    }
+
     public long count() {
         return em.createQuery("select count(t) from Team t", Long.class)
                 .getSingleResult();
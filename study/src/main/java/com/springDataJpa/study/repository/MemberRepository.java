@@ -5,17 +5,31 @@ import com.springDataJpa.study.dto.MemberProjection;
 import com.springDataJpa.study.dto.UsernameOnly;
 import com.springDataJpa.study.dto.UsernameOnlyDto;
 import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.entity.Team;
+import com.springDataJpa.study.support.async.AsyncRepositoryConfig;
+import com.springDataJpa.study.support.cache.CachedQuery;
+import org.hibernate.LockOptions;
+import org.hibernate.cfg.AvailableSettings;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
-
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 기본 CRUD 조회(findById, findAll ...)만 SimpleJpaRepository 의 readOnly 트랜잭션으로 실행되고
+ * 쿼리 메서드는 호출한 쪽 트랜잭션을 따른다.
+ * replica 로 보내도 되는 조회만 메서드에 @Transactional(readOnly = true) 를 붙인다.
+ * (readOnly 트랜잭션은 flush 하지 않고, replica 는 방금 커밋한 변경이 아직 안 보일 수 있다)
+ */
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, JpaSpecificationExecutor<Member>{
 
 //    List<Member> findByUsername(String username);
@@ -31,11 +45,13 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      * @return
      */
 //    @Query(name = "Member.findByUsername")
+    @Transactional(readOnly = true)
     List<Member> findByUsername(@Param("username") String username);
 
     @Query("select m from Member m where m.username = :username and m.age = :age")
     List<Member> findUser(@Param("username") String username, @Param("age") int age);
 
+    @CachedQuery(ttl = "30s")
     @Query("select m.username from Member m")
     List<String> findUsernameList();
 
@@ -47,6 +63,17 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select m from Member m where m.username in :names")
     List<Member> findByNames(@Param("names") List<String> names);
 
+    /**
+     * findByNames 의 캐시 가능한 DTO 버전
+     * 엔티티는 영속성 컨텍스트와 묶여 있어 캐시하지 않는다.
+     * team 이름을 포함하므로 Team 이 변경되어도 무효화된다.
+     */
+    @CachedQuery(dependsOn = Team.class)
+    @Query("select new com.springDataJpa.study.dto.MemberDto(m.id, m.username, t.name) from Member m" +
+            " left join m.team t" +
+            " where m.username in :names")
+    List<MemberDto> findMemberDtoByNames(@Param("names") List<String> names);
+
     List<Member> findListByUsername(String username);
 
     Member findMemberByUsername(String username);
@@ -59,6 +86,15 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     Slice<Member> findSliceByAge(int age, Pageable pageable);
 
+    /**
+     * 요청 스레드를 막지 않는 조회, 커넥션 풀 크기로 제한된 repositoryExecutor 에서 실행된다.
+     */
+    @Async(AsyncRepositoryConfig.EXECUTOR)
+    CompletableFuture<List<Member>> findAsyncByUsername(String username);
+
+    @Async(AsyncRepositoryConfig.EXECUTOR)
+    CompletableFuture<Page<Member>> findAsyncByAge(int age, Pageable pageable);
+
     /**
      * 복잡한 상황일 경우 countQuery를 정의 가능
      *
@@ -71,11 +107,6 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
             countQuery = "select count(m) from Member m")
     List<Member> findListByAge(int age, Pageable pageable);
 
-    @Modifying(clearAutomatically = true,
-            flushAutomatically = true)
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
-    int bulkAgePlus(@Param("age") int age);
-
     @Query("select m from Member m join fetch m.team")
     List<Member> findMemberFetchJoin();
 
@@ -90,6 +121,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @EntityGraph(attributePaths = {"team"})
     List<Member> findEntityGraphByUsername(@Param("username") String username);
 
+    @Transactional(readOnly = true)
     @QueryHints(value= @QueryHint(name = "org.hibernate.readOnly", value="true"))
     Member findReadOnlyByUsername(String username);
 
@@ -101,11 +133,29 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      * @param username
      * @return
      */
+    @Transactional
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<Member> findLockByUsername(String username);
 
+    /**
+     * for update nowait, 다른 트랜잭션이 잡고 있으면 기다리지 않고 예외
+     */
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JPA_LOCK_TIMEOUT, value = "" + LockOptions.NO_WAIT))
+    List<Member> findNoWaitByUsername(String username);
+
+    /**
+     * for update skip locked, 다른 트랜잭션이 잡고 있는 행은 빼고 돌려준다.
+     */
+    @Transactional
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = AvailableSettings.JPA_LOCK_TIMEOUT, value = "" + LockOptions.SKIP_LOCKED))
+    List<Member> findSkipLockedByUsername(String username);
+
     List<UsernameOnly> findProjectionsByUsername(@Param("username") String username);
 
+    @CachedQuery
     List<UsernameOnlyDto> findProjectionsDtoByUsername(@Param("username")String username);
 
     @Query(value = "select * from Member m where username = ?", nativeQuery = true)
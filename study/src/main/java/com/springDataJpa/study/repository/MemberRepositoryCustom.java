@@ -1,10 +1,123 @@
 package com.springDataJpa.study.repository;
 
+import com.springDataJpa.study.dto.MemberProjection;
 import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.support.bulk.BulkUpdateProgress;
+import com.springDataJpa.study.support.paging.CountMode;
+import com.springDataJpa.study.support.paging.MemberCursor;
+import com.springDataJpa.study.support.paging.Window;
+import com.springDataJpa.study.support.spec.SpecProjection;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
 
     List<Member> findMemberCustom();
+
+    /**
+     * findMemberCustom 의 스트림 버전, 트랜잭션 안에서 사용하고 반드시 close 해야 한다.
+     * 요소는 read-only 이고 다음 요소를 꺼내거나 stream 을 닫으면 detach 된다.
+     */
+    Stream<Member> streamMemberCustom(int fetchSize);
+
+    /**
+     * findMemberCustom 의 콜백 버전, 처리한 건수를 돌려준다.
+     */
+    long forEachMemberCustom(int fetchSize, Consumer<Member> action);
+
+    /**
+     * username desc, member_id desc 순서의 keyset 조회
+     *
+     * @param after 이전 window 의 마지막 cursor, null 이면 처음부터
+     * @param size
+     * @return
+     */
+    Window<Member> findMemberWindow(MemberCursor after, int size);
+
+    /**
+     * JpaSpecificationExecutor.findAll(spec, pageable) 의 프로젝션 버전, 엔티티 대신 projection 의 컬럼만 조회한다.
+     * count 쿼리는 spec 조건만으로 만들어지고 필요 없으면 실행되지 않는다.
+     *
+     * @param projection MemberSpec.DTO, MemberSpec.PROJECTION 등
+     */
+    <R> Page<R> findAll(Specification<Member> spec, SpecProjection<Member, R> projection, Pageable pageable);
+
+    /**
+     * findMemberWindow 와 같은 순서(username desc, member_id desc) 의 keyset 조회에 spec 조건과 프로젝션을 적용한다.
+     */
+    <R> Window<R> findWindow(Specification<Member> spec, SpecProjection<Member, R> projection, MemberCursor after, int size);
+
+    /**
+     * findProjectionsByUsername(String) 의 closed 프로젝션 버전
+     * 프로젝션에 필요한 컬럼만 select 하고 중첩 프로젝션(NestedClosedProjections.getTeam)도 team 전체가 아닌 필요한 컬럼만 join 해서 가져온다.
+     * 결과는 jdk proxy 가 아닌 생성된 클래스(필드 + getter)
+     */
+    <P> List<P> findProjectionsByUsername(String username, Class<P> type);
+
+    /**
+     * Query by Example 은 SimpleJpaRepository 대신 ExampleQueryExecutor 로 실행한다.
+     * (example 모양마다 jpql 을 재사용, ExampleMatcher 동작은 같다)
+     * SimpleJpaRepository 처럼 readOnly 트랜잭션으로 실행한다. (replica 라우팅, read-only 세션)
+     */
+    @Transactional(readOnly = true)
+    <S extends Member> List<S> findAll(Example<S> example);
+
+    @Transactional(readOnly = true)
+    <S extends Member> List<S> findAll(Example<S> example, Sort sort);
+
+    @Transactional(readOnly = true)
+    <S extends Member> Page<S> findAll(Example<S> example, Pageable pageable);
+
+    @Transactional(readOnly = true)
+    <S extends Member> long count(Example<S> example);
+
+    /**
+     * findByAge(int, Pageable) 와 같은 결과, count 쿼리 방식을 선택할 수 있다.
+     */
+    Page<Member> findPageByAge(int age, Pageable pageable, CountMode countMode);
+
+    Page<Member> findPageByUsername(String username, Pageable pageable, CountMode countMode);
+
+    /**
+     * findByNativeProjections 와 같은 결과, APPROXIMATE 이면 pg_class 통계로 전체 건수를 추정한다.
+     */
+    Page<MemberProjection> findNativeProjectionsPage(Pageable pageable, CountMode countMode);
+
+    /**
+     * age 이상인 회원의 나이를 1 증가, member_id 범위 chunk 단위로 나눠서 실행된다.
+     * 트랜잭션 밖에서 호출하면 chunk 마다 커밋되고, 트랜잭션 안에서 호출하면 끝난 뒤 영속성 컨텍스트를 비운다.
+     */
+    int bulkAgePlus(int age);
+
+    /**
+     * @param jobName null 이 아니면 실패한 같은 이름의 작업을 마지막으로 커밋된 key 이후부터 이어서 실행
+     * @param progressListener chunk 가 끝날 때마다 호출
+     * @return 변경된 전체 건수
+     */
+    long bulkAgePlus(int age, String jobName, Consumer<BulkUpdateProgress> progressListener);
+
+    /**
+     * 다른 트랜잭션이 잡고 있지 않은 회원을 member_id 순으로 최대 limit 명 잠근다. (for update skip locked)
+     * 여러 worker 가 동시에 호출해도 서로 기다리지 않고 겹치지 않는 회원을 가져가며,
+     * 잠금은 호출한 트랜잭션이 끝날 때까지 유지되므로 처리도 같은 트랜잭션 안에서 한다.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    List<Member> claimNext(int limit);
+
+    /**
+     * findLockByUsername 과 같지만 잠금을 최대 lockTimeout 만큼만 기다린다.
+     * 넘기면 LockTimeoutException (또는 PessimisticLockException)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    List<Member> findLockByUsername(String username, Duration lockTimeout);
 }
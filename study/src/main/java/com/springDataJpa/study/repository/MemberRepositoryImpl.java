@@ -1,15 +1,55 @@
 package com.springDataJpa.study.repository;
 
+import com.springDataJpa.study.dto.MemberProjection;
 import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.support.bulk.BulkUpdate;
+import com.springDataJpa.study.support.bulk.BulkUpdateProgress;
+import com.springDataJpa.study.support.bulk.ChunkedBulkUpdater;
+import com.springDataJpa.study.support.example.ExampleQueryExecutor;
+import com.springDataJpa.study.support.lock.PessimisticLocks;
+import com.springDataJpa.study.support.paging.CountMode;
+import com.springDataJpa.study.support.paging.CountQuery;
+import com.springDataJpa.study.support.paging.MemberCursor;
+import com.springDataJpa.study.support.paging.PageCountExecutor;
+import com.springDataJpa.study.support.paging.Window;
+import com.springDataJpa.study.support.projection.ClosedProjections;
+import com.springDataJpa.study.support.spec.SpecProjection;
+import com.springDataJpa.study.support.spec.SpecificationQueryExecutor;
+import com.springDataJpa.study.support.stream.EntityStreams;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom{
 
+    private static final String CURSOR_USERNAME = "cursorUsername";
+    private static final String CURSOR_ID = "cursorId";
+
+    /**
+     * findMemberWindow 와 같은 username desc nulls first, member_id desc
+     */
+    private static final Sort WINDOW_SORT = Sort.by(Sort.Order.desc("username").nullsFirst(), Sort.Order.desc("id"));
+
     private final EntityManager em;
+    private final PageCountExecutor pageCountExecutor;
+    private final ChunkedBulkUpdater chunkedBulkUpdater;
+    private final SpecificationQueryExecutor specificationQueryExecutor;
+    private final ExampleQueryExecutor exampleQueryExecutor;
 
 
     @Override
@@ -17,4 +57,221 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom{
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
+
+    @Override
+    public Stream<Member> streamMemberCustom(int fetchSize) {
+        return EntityStreams.detaching(em, memberCursor(fetchSize).getResultStream());
+    }
+
+    @Override
+    public long forEachMemberCustom(int fetchSize, Consumer<Member> action) {
+        return EntityStreams.forEachDetached(em, memberCursor(fetchSize).getResultStream(), action);
+    }
+
+    private TypedQuery<Member> memberCursor(int fetchSize) {
+        return EntityStreams.cursorHints(em.createQuery("select m from Member m", Member.class), fetchSize);
+    }
+
+    @Override
+    public Window<Member> findMemberWindow(MemberCursor after, int size) {
+        TypedQuery<Member> query;
+
+        if (after == null) {
+            query = em.createQuery("select m from Member m" +
+                    " order by m.username desc nulls first, m.id desc", Member.class);
+        } else if (after.getUsername() == null) {
+            query = em.createQuery("select m from Member m" +
+                            " where (m.username is null and m.id < :id)" +
+                            " or m.username is not null" +
+                            " order by m.username desc nulls first, m.id desc", Member.class)
+                    .setParameter("id", after.getId());
+        } else {
+            query = em.createQuery("select m from Member m" +
+                            " where m.username < :username" +
+                            " or (m.username = :username and m.id < :id)" +
+                            " order by m.username desc nulls first, m.id desc", Member.class)
+                    .setParameter("username", after.getUsername())
+                    .setParameter("id", after.getId());
+        }
+
+        List<Member> rows = query.setMaxResults(size + 1)
+                .getResultList();
+
+        return Window.of(rows, size, m -> MemberCursor.of(m).encode());
+    }
+
+    @Override
+    public <R> Page<R> findAll(Specification<Member> spec, SpecProjection<Member, R> projection, Pageable pageable) {
+        return specificationQueryExecutor.page(Member.class, spec, projection, pageable);
+    }
+
+    @Override
+    public <R> Window<R> findWindow(Specification<Member> spec, SpecProjection<Member, R> projection, MemberCursor after, int size) {
+        Specification<Member> where = Specification.where(spec);
+        if (after != null && after.getUsername() == null) {
+            where = where.and((root, query, criteriaBuilder) -> criteriaBuilder.or(
+                    criteriaBuilder.and(
+                            criteriaBuilder.isNull(root.get("username")),
+                            criteriaBuilder.lessThan(root.get("id"), after.getId())),
+                    criteriaBuilder.isNotNull(root.get("username"))));
+        } else if (after != null) {
+            where = where.and((root, query, criteriaBuilder) -> criteriaBuilder.or(
+                    criteriaBuilder.lessThan(root.get("username"), after.getUsername()),
+                    criteriaBuilder.and(
+                            criteriaBuilder.equal(root.get("username"), after.getUsername()),
+                            criteriaBuilder.lessThan(root.get("id"), after.getId()))));
+        }
+
+        //프로젝션에 없을 수도 있는 cursor 값은 별도 컬럼으로 같이 조회한다.
+        SpecProjection<Member, Map.Entry<R, String>> withCursor = projection
+                .with(CURSOR_USERNAME, (root, criteriaBuilder) -> root.get("username"))
+                .with(CURSOR_ID, (root, criteriaBuilder) -> root.get("id"))
+                .andThen((value, row) -> Map.entry(value,
+                        new MemberCursor(row.get(CURSOR_USERNAME, String.class), row.get(CURSOR_ID, Long.class)).encode()));
+
+        List<Map.Entry<R, String>> rows = specificationQueryExecutor.list(Member.class, where, withCursor,
+                WINDOW_SORT, 0, size + 1);
+
+        return Window.of(rows, size, Map.Entry::getValue)
+                .map(Map.Entry::getKey);
+    }
+
+    @Override
+    public <P> List<P> findProjectionsByUsername(String username, Class<P> type) {
+        return specificationQueryExecutor.list(Member.class, MemberSpec.usernameEquals(username),
+                ClosedProjections.of(Member.class, type), Sort.unsorted(), 0, 0);
+    }
+
+    @Override
+    public <S extends Member> List<S> findAll(Example<S> example) {
+        return exampleQueryExecutor.findAll(example, Sort.unsorted());
+    }
+
+    @Override
+    public <S extends Member> List<S> findAll(Example<S> example, Sort sort) {
+        return exampleQueryExecutor.findAll(example, sort);
+    }
+
+    @Override
+    public <S extends Member> Page<S> findAll(Example<S> example, Pageable pageable) {
+        return exampleQueryExecutor.findAll(example, pageable);
+    }
+
+    @Override
+    public <S extends Member> long count(Example<S> example) {
+        return exampleQueryExecutor.count(example);
+    }
+
+    @Override
+    public Page<Member> findPageByAge(int age, Pageable pageable, CountMode countMode) {
+        TypedQuery<Member> query = em.createQuery(
+                        QueryUtils.applySorting("select m from Member m where m.age = :age", pageable.getSort(), "m"),
+                        Member.class)
+                .setParameter("age", age);
+
+        CountQuery countQuery = CountQuery.jpql("select count(m) from Member m where m.age = :age")
+                .param("age", age);
+
+        return pageCountExecutor.page(paging(query, pageable).getResultList(), pageable, countQuery, countMode);
+    }
+
+    @Override
+    public Page<Member> findPageByUsername(String username, Pageable pageable, CountMode countMode) {
+        TypedQuery<Member> query = em.createQuery(
+                        QueryUtils.applySorting("select m from Member m where m.username = :username", pageable.getSort(), "m"),
+                        Member.class)
+                .setParameter("username", username);
+
+        CountQuery countQuery = CountQuery.jpql("select count(m) from Member m where m.username = :username")
+                .param("username", username);
+
+        return pageCountExecutor.page(paging(query, pageable).getResultList(), pageable, countQuery, countMode);
+    }
+
+    @Override
+    public Page<MemberProjection> findNativeProjectionsPage(Pageable pageable, CountMode countMode) {
+        Query query = em.createNativeQuery(QueryUtils.applySorting("select m.member_id as id, m.username, t.name as teamName" +
+                " from member m left join team t" +
+                " on m.team_id = t.team_id", pageable.getSort()));
+
+        List<?> rows = paging(query, pageable).getResultList();
+        List<MemberProjection> content = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            content.add(new MemberProjectionRow(((Number) columns[0]).longValue(), (String) columns[1], (String) columns[2]));
+        }
+
+        CountQuery countQuery = CountQuery.nativeQuery("select count(*) from member")
+                .estimateFrom("member");
+
+        return pageCountExecutor.page(content, pageable, countQuery, countMode);
+    }
+
+    private static <Q extends Query> Q paging(Q query, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
+
+    @Override
+    public int bulkAgePlus(int age) {
+        return (int) bulkAgePlus(age, null, progress -> {
+        });
+    }
+
+    @Override
+    public long bulkAgePlus(int age, String jobName, Consumer<BulkUpdateProgress> progressListener) {
+        return chunkedBulkUpdater.execute(BulkUpdate.builder()
+                .entityType(Member.class)
+                .set("e.age = e.age + 1")
+                .where("e.age >= :age")
+                .parameter("age", age)
+                .jobName(jobName)
+                .progressListener(progressListener)
+                .build());
+    }
+
+    @Override
+    public List<Member> claimNext(int limit) {
+        return PessimisticLocks.skipLocked(em.createQuery("select m from Member m order by m.id", Member.class))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Member> findLockByUsername(String username, Duration lockTimeout) {
+        return PessimisticLocks.timeout(em, em.createQuery("select m from Member m" +
+                                " where m.username = :username", Member.class), lockTimeout)
+                .setParameter("username", username)
+                .getResultList();
+    }
+
+    private static class MemberProjectionRow implements MemberProjection {
+        private final Long id;
+        private final String username;
+        private final String teamName;
+
+        private MemberProjectionRow(Long id, String username, String teamName) {
+            this.id = id;
+            this.username = username;
+            this.teamName = teamName;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
+        public String getTeamName() {
+            return teamName;
+        }
+    }
 }
@@ -1,34 +1,70 @@
 package com.springDataJpa.study.repository;
 
+import com.springDataJpa.study.dto.MemberDto;
+import com.springDataJpa.study.dto.MemberProjection;
 import com.springDataJpa.study.entity.Member;
 import com.springDataJpa.study.entity.Team;
-import org.springframework.data.jpa.domain.Specification;
+import com.springDataJpa.study.support.projection.ClosedProjections;
+import com.springDataJpa.study.support.spec.SelectiveSpecification;
+import com.springDataJpa.study.support.spec.Selectivity;
+import com.springDataJpa.study.support.spec.SpecProjection;
+import com.springDataJpa.study.support.spec.Specs;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.criteria.Join;
 import javax.persistence.criteria.JoinType;
 
+/**
+ * team 조인은 Specs.join 으로 재사용하므로 teamname 을 여러 번 조합해도 join 은 하나
+ * Specs.allOf 로 조합하면 선택도 순(username => teamname) 으로 where 절이 만들어진다.
+ */
 public class MemberSpec {
 
-    public static Specification<Member> teamname(final String teamname) {
-        return (root, query, criteriaBuilder) ->  {
+    /**
+     * id, username, team.name 만 select, team 은 teamname 조건이 있으면 그 join 을 재사용한다.
+     */
+    public static final SpecProjection<Member, MemberDto> DTO = SpecProjection.of(Member.class)
+            .attribute("id")
+            .attribute("username")
+            .column("teamName", (root, criteriaBuilder) -> Specs.<Member, Team>leftJoin(root, "team").get("name"))
+            .dto(MemberDto.class);
+
+    /**
+     * 같은 컬럼, teamName 은 team.name 으로 해석된다. (ClosedProjections)
+     */
+    public static final SpecProjection<Member, MemberProjection> PROJECTION = ClosedProjections.of(Member.class, MemberProjection.class);
+
+    public static SelectiveSpecification<Member> teamname(final String teamname) {
+        return Specs.selective(Selectivity.LOW, (root, query, criteriaBuilder) -> {
             if (isEmpty(teamname)) {
                 return null;
             }
 
-            Join<Member, Team> team = root.join("team", JoinType.INNER);
+            Join<Member, Team> team = Specs.join(root, "team", JoinType.INNER);
             return criteriaBuilder.equal(team.get("name"), teamname);
-        };
+        });
+    }
+
+    public static SelectiveSpecification<Member> username(final String username) {
+        return Specs.selective(Selectivity.EQUAL, (root, query, criteriaBuilder) -> {
+            if (isEmpty(username)) {
+                return null;
+            }
+
+            return criteriaBuilder.equal(root.get("username"), username);
+        });
     }
 
-    public static Specification<Member> username(final String username) {
-        return (root, query, criteriaBuilder) ->  {
-            Join<Member, Team> user = root.join("team", JoinType.INNER);
-            return criteriaBuilder.equal(user.get("username"), username);
-        };
+    /**
+     * username 과 달리 비어 있어도 조건을 빼지 않는다. null 이면 파생 쿼리처럼 is null
+     */
+    public static SelectiveSpecification<Member> usernameEquals(final String username) {
+        return Specs.selective(Selectivity.EQUAL, (root, query, criteriaBuilder) -> username == null
+                ? criteriaBuilder.isNull(root.get("username"))
+                : criteriaBuilder.equal(root.get("username"), username));
     }
 
     private static boolean isEmpty(String s) {
-        return StringUtils.isEmpty(s);
+        return !StringUtils.hasText(s);
     }
 }
@@ -0,0 +1,25 @@
+package com.springDataJpa.study.repository;
+
+import com.springDataJpa.study.entity.Team;
+import com.springDataJpa.study.support.paging.CountMode;
+import com.springDataJpa.study.support.paging.Window;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface TeamRepositoryCustom {
+
+    /**
+     * members 를 fetch join 한 team 페이지
+     * 컬렉션 fetch join 에 limit 을 걸면 메모리에서 페이징(HHH000104)되므로
+     * team id 를 먼저 페이징한 뒤 그 id 들만 fetch join 으로 조회하고 id 순서대로 돌려준다.
+     */
+    Page<Team> findPageWithMembers(Pageable pageable, CountMode countMode);
+
+    /**
+     * findPageWithMembers 의 keyset 버전, team_id 오름차순
+     * 다음 window 여부를 알기 위해 team id 는 size + 1 건 조회하고 fetch join 은 size 건만 한다.
+     *
+     * @param afterId 이전 window 의 nextCursor, null 이면 처음부터
+     */
+    Window<Team> findWindowWithMembers(Long afterId, int size);
+}
@@ -0,0 +1,85 @@
+package com.springDataJpa.study.repository;
+
+import com.springDataJpa.study.entity.Team;
+import com.springDataJpa.study.support.paging.CountMode;
+import com.springDataJpa.study.support.paging.CountQuery;
+import com.springDataJpa.study.support.paging.PageCountExecutor;
+import com.springDataJpa.study.support.paging.Window;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private final EntityManager em;
+    private final PageCountExecutor pageCountExecutor;
+
+    @Override
+    public Page<Team> findPageWithMembers(Pageable pageable, CountMode countMode) {
+        //같은 값끼리 순서가 바뀌지 않도록 마지막에 id 정렬 추가
+        Sort sort = pageable.getSort().getOrderFor("id") == null
+                ? pageable.getSort().and(Sort.by("id"))
+                : pageable.getSort();
+
+        TypedQuery<Long> idQuery = em.createQuery(QueryUtils.applySorting("select t.id from Team t", sort, "t"), Long.class);
+        if (pageable.isPaged()) {
+            idQuery.setFirstResult((int) pageable.getOffset());
+            idQuery.setMaxResults(pageable.getPageSize());
+        }
+
+        List<Team> content = fetchWithMembers(idQuery.getResultList());
+        return pageCountExecutor.page(content, pageable, CountQuery.jpql("select count(t) from Team t").estimateFrom("team"), countMode);
+    }
+
+    @Override
+    public Window<Team> findWindowWithMembers(Long afterId, int size) {
+        TypedQuery<Long> idQuery = afterId == null
+                ? em.createQuery("select t.id from Team t order by t.id", Long.class)
+                : em.createQuery("select t.id from Team t where t.id > :afterId order by t.id", Long.class)
+                .setParameter("afterId", afterId);
+
+        List<Long> ids = idQuery.setMaxResults(size + 1)
+                .getResultList();
+
+        //size + 1 번째 id 는 다음 window 여부만 판단하고 fetch join 하지 않는다.
+        List<Team> content = fetchWithMembers(ids.subList(0, Math.min(size, ids.size())));
+        return Window.of(content, size, ids.size() > size, t -> String.valueOf(t.getId()));
+    }
+
+    /**
+     * ids 순서대로 members 가 초기화된 team 목록
+     */
+    private List<Team> fetchWithMembers(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Team> teams = em.createQuery("select distinct t from Team t" +
+                        " left join fetch t.members" +
+                        " where t.id in :ids", Team.class)
+                .setParameter("ids", ids)
+                .setHint(QueryHints.HINT_PASS_DISTINCT_THROUGH, false)
+                .getResultList();
+
+        Map<Long, Integer> order = new HashMap<>(ids.size() * 2);
+        for (int i = 0; i < ids.size(); i++) {
+            order.put(ids.get(i), i);
+        }
+        return teams.stream()
+                .sorted(Comparator.comparing(t -> order.get(t.getId())))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,30 @@
+package com.springDataJpa.study.service;
+
+import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.repository.MemberRepository;
+import com.springDataJpa.study.support.retry.OptimisticRetry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityNotFoundException;
+
+@Service
+@RequiredArgsConstructor
+public class MemberService {
+
+    private final MemberRepository memberRepository;
+
+    /**
+     * 같은 회원을 동시에 수정하면 늦게 커밋하는 쪽이 version 충돌로 실패하고,
+     * @OptimisticRetry 가 최신 값을 다시 읽어서 재시도하므로 증가분이 유실되지 않는다. (for update 잠금 없이)
+     */
+    @OptimisticRetry
+    @Transactional
+    public Member addAge(Long memberId, int delta) {
+        Member member = memberRepository.findById(memberId)
+                .orElseThrow(() -> new EntityNotFoundException("member not found. id = " + memberId));
+        member.setAge(member.getAge() + delta);
+        return member;
+    }
+}
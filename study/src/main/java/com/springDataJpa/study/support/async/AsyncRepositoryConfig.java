@@ -0,0 +1,40 @@
+package com.springDataJpa.study.support.async;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * @Async(AsyncRepositoryConfig.EXECUTOR) 가 붙은 CompletableFuture 조회 메서드는 요청 스레드 대신 repositoryExecutor 에서 실행된다.
+ * querydsl 모듈에 같은 설정이 있다. (RepositoryExecutor 참고)
+ */
+@Slf4j
+@Configuration
+@EnableAsync
+public class AsyncRepositoryConfig {
+
+    public static final String EXECUTOR = "repositoryExecutor";
+
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    @Bean(name = EXECUTOR, destroyMethod = "shutdown")
+    public RepositoryExecutor repositoryExecutor(AsyncRepositoryProperties properties, Environment environment,
+                                                 MeterRegistry meterRegistry) {
+        int poolSize = properties.getPoolSize() > 0
+                ? properties.getPoolSize()
+                : environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, HIKARI_DEFAULT_POOL_SIZE);
+
+        if (properties.isVirtualThreads()) {
+            RepositoryExecutor executor = RepositoryExecutor.virtual(poolSize, properties.getQueueCapacity(), meterRegistry);
+            if (executor != null) {
+                return executor;
+            }
+            log.warn("virtual threads are not available on java {}, falling back to platform threads",
+                    System.getProperty("java.version"));
+        }
+        return RepositoryExecutor.platform(poolSize, properties.getQueueCapacity(), meterRegistry);
+    }
+}
@@ -0,0 +1,42 @@
+package com.springDataJpa.study.support.audit;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.AuditorAware;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Clock;
+import java.util.Optional;
+
+@Configuration
+public class AuditConfig {
+
+    public static final String DATE_TIME_PROVIDER = "transactionDateTimeProvider";
+
+    @Bean
+    public TransactionClock transactionClock() {
+        return new TransactionClock(Clock.systemDefaultZone());
+    }
+
+    /**
+     * SqlStatementCounter 가 바뀐 sql 을 집계하도록 먼저 실행한다.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public BulkUpdateAuditInspector bulkUpdateAuditInspector(ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                                             ObjectProvider<AuditorAware<?>> auditorAware) {
+        return new BulkUpdateAuditInspector(entityManagerFactory, auditorAware);
+    }
+
+    /**
+     * AuditingEntityListener 를 쓰는 엔티티도 같은 트랜잭션 시각을 사용하도록
+     */
+    @Bean(DATE_TIME_PROVIDER)
+    public DateTimeProvider transactionDateTimeProvider(TransactionClock transactionClock) {
+        return () -> Optional.of(transactionClock.now());
+    }
+}
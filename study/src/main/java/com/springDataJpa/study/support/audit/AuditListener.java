@@ -0,0 +1,37 @@
+package com.springDataJpa.study.support.audit;
+
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * AuditingEntityListener 대체
+ * 엔티티마다 @CreatedDate / @LastModifiedDate 필드를 리플렉션으로 찾아 쓰지 않고 AuditedEntity 를 직접 호출한다.
+ * 시각은 TransactionClock (트랜잭션 하나에 한 번)
+ *
+ * hibernate 가 spring bean 으로 가져다 쓴다. (SpringBeanContainer)
+ */
+@Component
+public class AuditListener {
+
+    private final TransactionClock transactionClock;
+
+    public AuditListener(TransactionClock transactionClock) {
+        this.transactionClock = transactionClock;
+    }
+
+    @PrePersist
+    public void prePersist(Object entity) {
+        if (entity instanceof AuditedEntity) {
+            ((AuditedEntity) entity).auditCreated(transactionClock.now());
+        }
+    }
+
+    @PreUpdate
+    public void preUpdate(Object entity) {
+        if (entity instanceof AuditedEntity) {
+            ((AuditedEntity) entity).auditUpdated(transactionClock.now());
+        }
+    }
+}
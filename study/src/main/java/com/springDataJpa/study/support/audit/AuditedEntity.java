@@ -0,0 +1,13 @@
+package com.springDataJpa.study.support.audit;
+
+import java.time.LocalDateTime;
+
+/**
+ * AuditListener 가 리플렉션 없이 직접 호출하는 감사 필드 setter
+ */
+public interface AuditedEntity {
+
+    void auditCreated(LocalDateTime now);
+
+    void auditUpdated(LocalDateTime now);
+}
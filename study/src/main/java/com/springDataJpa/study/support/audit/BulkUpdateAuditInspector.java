@@ -0,0 +1,188 @@
+package com.springDataJpa.study.support.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.annotation.LastModifiedBy;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.util.ReflectionUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * bulk update(@Modifying jpql, querydsl JPAUpdateClause, ChunkedBulkUpdater) 는 엔티티 리스너가 실행되지 않으므로
+ * 실행되는 update sql 에 @LastModifiedDate / @LastModifiedBy 컬럼이 없으면 set 절에 추가한다.
+ *
+ * update member set age=age+1 where ...
+ * => update member set updatedDate=localtimestamp, age=age+1 where ...
+ *
+ * 시각은 db 의 localtimestamp(트랜잭션 시작 시각, db 세션 시간대) 라서 sql 이 매번 같고 statement 캐시를 재사용한다.
+ * 엔티티 리스너는 애플리케이션의 TransactionClock 을 쓰므로 같은 트랜잭션이라도 두 시계의 차이만큼 값이 다를 수 있다.
+ * auditor 는 AuditorAware 값을 리터럴로 넣는다. (auditor 마다 sql 이 달라진다)
+ * 엔티티 update(dirty checking) 나 직접 컬럼을 set 하는 native update 는 이미 컬럼을 포함하므로 그대로 둔다.
+ * 바인딩 파라미터를 추가하지 않으므로 파라미터 위치는 바뀌지 않는다.
+ */
+@Slf4j
+public class BulkUpdateAuditInspector implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Pattern UPDATE = Pattern.compile(
+            "^(\\s*(?:/\\*.*?\\*/\\s*)?update\\s+)([\\w.\"]+)(\\s+set\\s+)(.*)$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern WHERE = Pattern.compile("\\swhere\\s", Pattern.CASE_INSENSITIVE);
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+    private final ObjectProvider<AuditorAware<?>> auditorAware;
+
+    /**
+     * 소문자 테이블 이름 => 감사 컬럼, 첫 update 때 hibernate 메타모델에서 만든다.
+     */
+    private volatile Map<String, List<AuditColumn>> auditColumns;
+
+    public BulkUpdateAuditInspector(ObjectProvider<EntityManagerFactory> entityManagerFactory,
+                                    ObjectProvider<AuditorAware<?>> auditorAware) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.auditorAware = auditorAware;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Matcher matcher = UPDATE.matcher(sql);
+        if (!matcher.matches()) {
+            return sql;
+        }
+
+        List<AuditColumn> columns = auditColumns().get(unquote(matcher.group(2)).toLowerCase(Locale.ROOT));
+        if (columns == null) {
+            return sql;
+        }
+
+        String rest = matcher.group(4);
+        Matcher where = WHERE.matcher(rest);
+        String setClause = where.find() ? rest.substring(0, where.start()) : rest;
+
+        StringBuilder added = new StringBuilder();
+        for (AuditColumn column : columns) {
+            if (column.isSetIn(setClause)) {
+                continue;
+            }
+            String value = column.value(this);
+            if (value != null) {
+                added.append(column.name).append('=').append(value).append(", ");
+            }
+        }
+        if (added.length() == 0) {
+            return sql;
+        }
+        return matcher.group(1) + matcher.group(2) + matcher.group(3) + added + rest;
+    }
+
+    private static String now() {
+        return "localtimestamp";
+    }
+
+    private String auditor() {
+        AuditorAware<?> aware = auditorAware.getIfAvailable();
+        Optional<?> auditor = aware == null ? Optional.empty() : aware.getCurrentAuditor();
+        return auditor.map(value -> "'" + value.toString().replace("'", "''") + "'").orElse(null);
+    }
+
+    private Map<String, List<AuditColumn>> auditColumns() {
+        Map<String, List<AuditColumn>> columns = auditColumns;
+        if (columns == null) {
+            columns = resolve(entityManagerFactory.getObject().unwrap(SessionFactoryImplementor.class));
+            auditColumns = columns;
+        }
+        return columns;
+    }
+
+    private static Map<String, List<AuditColumn>> resolve(SessionFactoryImplementor sessionFactory) {
+        Map<String, List<AuditColumn>> columns = new HashMap<>();
+
+        for (EntityPersister persister : sessionFactory.getMetamodel().entityPersisters().values()) {
+            if (!(persister instanceof AbstractEntityPersister) || persister.getMappedClass() == null) {
+                continue;
+            }
+            AbstractEntityPersister entityPersister = (AbstractEntityPersister) persister;
+
+            ReflectionUtils.doWithFields(persister.getMappedClass(), field -> {
+                Kind kind = Kind.of(field);
+                if (kind == null) {
+                    return;
+                }
+                String table = unquote(entityPersister.getPropertyTableName(field.getName())).toLowerCase(Locale.ROOT);
+                String column = entityPersister.getPropertyColumnNames(field.getName())[0];
+                List<AuditColumn> tableColumns = columns.computeIfAbsent(table, t -> new ArrayList<>());
+                if (tableColumns.stream().noneMatch(c -> c.name.equalsIgnoreCase(column))) {
+                    tableColumns.add(new AuditColumn(column, kind));
+                }
+            });
+        }
+
+        log.info("bulk update audit columns = {}", columns);
+        return columns;
+    }
+
+    private static String unquote(String name) {
+        return name.replace("\"", "");
+    }
+
+    private enum Kind {
+        DATE, AUDITOR;
+
+        static Kind of(Field field) {
+            if (field.isAnnotationPresent(LastModifiedDate.class)) {
+                if (field.getType() != LocalDateTime.class) {
+                    log.warn("@LastModifiedDate {} is not LocalDateTime, bulk update will not set it", field);
+                    return null;
+                }
+                return DATE;
+            }
+            if (field.isAnnotationPresent(LastModifiedBy.class)) {
+                return AUDITOR;
+            }
+            return null;
+        }
+    }
+
+    private static class AuditColumn {
+        private final String name;
+        private final Kind kind;
+        private final Pattern assignment;
+
+        private AuditColumn(String name, Kind kind) {
+            this.name = name;
+            this.kind = kind;
+            this.assignment = Pattern.compile("(^|[\\s,.])" + Pattern.quote(unquote(name)) + "\"?\\s*=",
+                    Pattern.CASE_INSENSITIVE);
+        }
+
+        boolean isSetIn(String setClause) {
+            return assignment.matcher(setClause).find();
+        }
+
+        String value(BulkUpdateAuditInspector inspector) {
+            return kind == Kind.DATE ? now() : inspector.auditor();
+        }
+
+        @Override
+        public String toString() {
+            return name + "(" + kind + ")";
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.springDataJpa.study.support.audit;
+
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * 트랜잭션마다 auditor 를 한 번만 구하고 그 트랜잭션의 모든 쓰기에 재사용한다.
+ * 트랜잭션 밖에서는 매번 delegate 를 호출한다.
+ */
+public class CachedAuditorAware implements AuditorAware<String> {
+
+    private final Supplier<String> delegate;
+
+    public CachedAuditorAware(Supplier<String> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Optional<String> getCurrentAuditor() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Optional.ofNullable(delegate.get());
+        }
+
+        Auditor auditor = (Auditor) TransactionSynchronizationManager.getResource(this);
+        if (auditor == null) {
+            auditor = new Auditor(this, Optional.ofNullable(delegate.get()));
+            TransactionSynchronizationManager.bindResource(this, auditor);
+            TransactionSynchronizationManager.registerSynchronization(auditor);
+        }
+        return auditor.value;
+    }
+
+    private static class Auditor implements TransactionSynchronization {
+        private final CachedAuditorAware key;
+        private final Optional<String> value;
+
+        private Auditor(CachedAuditorAware key, Optional<String> value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(key);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(key, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(key);
+        }
+    }
+}
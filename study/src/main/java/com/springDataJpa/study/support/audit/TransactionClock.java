@@ -0,0 +1,69 @@
+package com.springDataJpa.study.support.audit;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 트랜잭션 하나 동안 같은 시각을 돌려주는 시계
+ * 한 번의 flush(트랜잭션) 로 저장되는 row 들의 createdDate / updatedDate 가 모두 같아지고,
+ * 엔티티마다 시스템 시계를 읽지 않는다. 트랜잭션 밖에서는 호출할 때마다 현재 시각
+ * db timestamp 정밀도(마이크로초) 로 잘라서 저장 후 다시 읽은 값과 같게 한다.
+ */
+public class TransactionClock {
+
+    private final Clock clock;
+
+    public TransactionClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public LocalDateTime now() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return current();
+        }
+
+        Timestamp timestamp = (Timestamp) TransactionSynchronizationManager.getResource(this);
+        if (timestamp == null) {
+            timestamp = new Timestamp(this, current());
+            TransactionSynchronizationManager.bindResource(this, timestamp);
+            TransactionSynchronizationManager.registerSynchronization(timestamp);
+        }
+        return timestamp.now;
+    }
+
+    private LocalDateTime current() {
+        return LocalDateTime.now(clock).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * REQUIRES_NEW 등으로 트랜잭션이 중단되면 같이 풀었다가 재개될 때 다시 묶는다.
+     */
+    private static class Timestamp implements TransactionSynchronization {
+        private final TransactionClock key;
+        private final LocalDateTime now;
+
+        private Timestamp(TransactionClock key, LocalDateTime now) {
+            this.key = key;
+            this.now = now;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(key);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(key, this);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(key);
+        }
+    }
+}
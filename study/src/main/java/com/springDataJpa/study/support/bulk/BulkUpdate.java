@@ -0,0 +1,97 @@
+package com.springDataJpa.study.support.bulk;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.util.DigestUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * ChunkedBulkUpdater 로 실행할 jpql bulk update 정의
+ * set / where 절은 별칭 e 로 작성한다. (e.age = e.age + 1, e.age >= :age)
+ *
+ * <pre>
+ * BulkUpdate.builder()
+ *         .entityType(Member.class)
+ *         .set("e.age = e.age + 1")
+ *         .where("e.age >= :age")
+ *         .parameter("age", 10)
+ *         .build();
+ * </pre>
+ */
+@Getter
+public class BulkUpdate {
+
+    public static final String ALIAS = "e";
+
+    private final Class<?> entityType;
+
+    private final String set;
+
+    /**
+     * null 이면 전체 대상
+     */
+    private final String where;
+
+    private final Map<String, Object> parameters;
+
+    /**
+     * 0 이하면 study.bulk.chunk-size 사용
+     */
+    private final int chunkSize;
+
+    /**
+     * 지정하면 chunk 마다 마지막 key 를 checkpoint 로 남기고, 끝나지 않은 같은 이름의 작업은 이어서 실행한다.
+     * null 이면 checkpoint 없이 처음부터 실행
+     */
+    private final String jobName;
+
+    private final Consumer<BulkUpdateProgress> progressListener;
+
+    @Builder
+    private BulkUpdate(Class<?> entityType, String set, String where, Map<String, Object> parameters,
+                       int chunkSize, String jobName, Consumer<BulkUpdateProgress> progressListener) {
+        this.entityType = entityType;
+        this.set = set;
+        this.where = where;
+        //builder 를 재사용해도 이미 만든 BulkUpdate 의 파라미터는 바뀌지 않는다.
+        this.parameters = Collections.unmodifiableMap(new LinkedHashMap<>(parameters));
+        this.chunkSize = chunkSize;
+        this.jobName = jobName;
+        this.progressListener = progressListener == null ? progress -> {
+        } : progressListener;
+    }
+
+    /**
+     * 같은 jobName 으로 이어서 실행할 때 이전 실행과 같은 update 인지 비교하는 값
+     * (entityType, set, where, parameters 로 만들고 chunkSize, progressListener 는 달라도 된다)
+     */
+    String fingerprint() {
+        String source = entityType.getName() + "\n" + set + "\n" + where + "\n" + new TreeMap<>(parameters);
+        return DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * lombok 이 나머지 필드와 build() 를 채운다.
+     * (@Singular Map&lt;String, Object&gt; 는 생성 코드에 불필요한 (Object) 캐스트가 들어가서 직접 작성)
+     */
+    public static class BulkUpdateBuilder {
+
+        private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+        public BulkUpdateBuilder parameter(String name, Object value) {
+            parameters.put(name, value);
+            return this;
+        }
+
+        public BulkUpdateBuilder parameters(Map<String, ?> parameters) {
+            this.parameters.putAll(parameters);
+            return this;
+        }
+    }
+}
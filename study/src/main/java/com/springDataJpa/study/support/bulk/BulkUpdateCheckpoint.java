@@ -0,0 +1,101 @@
+package com.springDataJpa.study.support.bulk;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import java.time.LocalDateTime;
+
+/**
+ * 작업별로 마지막으로 커밋된 key 범위를 기록해서 실패한 작업을 이어서 실행한다.
+ * chunk update 와 같은 트랜잭션에서 갱신된다.
+ * <p>
+ * runId 는 지금 이 작업을 실행 중인 실행의 표시로, leaseUntil 까지 같은 이름의 다른 실행은 시작할 수 없다.
+ * 실패하면 바로 풀리고, 프로세스가 죽어서 풀지 못하면 leaseUntil 이 지난 뒤 이어서 실행할 수 있다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class BulkUpdateCheckpoint {
+
+    public enum Status {
+        RUNNING, COMPLETED
+    }
+
+    @Id
+    @Column(name = "job_name")
+    private String jobName;
+
+    /**
+     * BulkUpdate.fingerprint(), 다른 update 로 이어서 실행하는 것을 막는다.
+     */
+    private String fingerprint;
+
+    private Long lastKey;
+
+    private long totalUpdated;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private String runId;
+
+    private LocalDateTime leaseUntil;
+
+    private LocalDateTime updatedAt;
+
+    public BulkUpdateCheckpoint(String jobName, String fingerprint) {
+        this.jobName = jobName;
+        restart(fingerprint);
+    }
+
+    public boolean isCompleted() {
+        return status == Status.COMPLETED;
+    }
+
+    /**
+     * 다른 실행이 lease 를 잡고 있는지
+     */
+    public boolean isClaimed(LocalDateTime now) {
+        return runId != null && leaseUntil.isAfter(now);
+    }
+
+    void restart(String fingerprint) {
+        this.fingerprint = fingerprint;
+        lastKey = null;
+        totalUpdated = 0;
+        status = Status.RUNNING;
+        updatedAt = LocalDateTime.now();
+    }
+
+    void claim(String runId, LocalDateTime leaseUntil) {
+        this.runId = runId;
+        this.leaseUntil = leaseUntil;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    void advance(Long lastKey, int updated, LocalDateTime leaseUntil) {
+        this.lastKey = lastKey;
+        this.totalUpdated += updated;
+        this.leaseUntil = leaseUntil;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    void release() {
+        runId = null;
+        leaseUntil = null;
+        updatedAt = LocalDateTime.now();
+    }
+
+    void complete() {
+        status = Status.COMPLETED;
+        release();
+    }
+}
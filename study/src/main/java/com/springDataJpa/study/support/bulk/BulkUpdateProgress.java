@@ -0,0 +1,34 @@
+package com.springDataJpa.study.support.bulk;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * chunk 하나가 끝날 때마다 전달되는 진행 상황
+ */
+@Getter
+@ToString
+public class BulkUpdateProgress {
+
+    private final String jobName;
+    private final int chunk;
+    private final Long lastKey;
+
+    /**
+     * 이번 chunk 에서 변경된 건수
+     */
+    private final int updated;
+
+    /**
+     * 작업 시작(이어서 실행한 경우 최초 시작)부터 누적 변경 건수
+     */
+    private final long totalUpdated;
+
+    public BulkUpdateProgress(String jobName, int chunk, Long lastKey, int updated, long totalUpdated) {
+        this.jobName = jobName;
+        this.chunk = chunk;
+        this.lastKey = lastKey;
+        this.updated = updated;
+        this.totalUpdated = totalUpdated;
+    }
+}
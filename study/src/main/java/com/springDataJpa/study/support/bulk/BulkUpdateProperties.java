@@ -0,0 +1,29 @@
+package com.springDataJpa.study.support.bulk;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.bulk")
+public class BulkUpdateProperties {
+
+    /**
+     * chunk 하나(트랜잭션 하나)에서 변경할 최대 key 수
+     */
+    private int chunkSize = 1_000;
+
+    /**
+     * chunk update 쿼리 timeout, 0 이면 제한 없음
+     */
+    private Duration chunkTimeout = Duration.ofSeconds(10);
+
+    /**
+     * jobName 이 있는 작업을 실행 중인 표시(checkpoint 의 runId)가 유지되는 시간, chunk 마다 연장된다.
+     * 프로세스가 죽어서 표시를 풀지 못한 작업은 이 시간이 지나야 이어서 실행할 수 있으므로 chunk 하나보다 충분히 길게 잡는다.
+     */
+    private Duration lease = Duration.ofMinutes(5);
+}
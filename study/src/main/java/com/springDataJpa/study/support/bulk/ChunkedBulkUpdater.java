@@ -0,0 +1,267 @@
+package com.springDataJpa.study.support.bulk;
+
+import com.springDataJpa.study.support.cache.QueryResultCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import javax.persistence.metamodel.EntityType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * 한 문장짜리 jpql bulk update 를 pk 범위(chunk) 단위로 나눠 실행한다.
+ * <p>
+ * 호출한 쪽에 트랜잭션이 없으면 chunk 마다 별도 트랜잭션으로 커밋되어 row lock 유지 시간과 트랜잭션 크기가 chunk 크기로 제한된다.
+ * 트랜잭션 안에서 호출하면 그 트랜잭션에 참여하므로 전체가 한 번에 커밋 / 롤백되고,
+ * 끝난 뒤 영속성 컨텍스트를 비운다. (@Modifying(flushAutomatically = true, clearAutomatically = true) 와 같은 동작)
+ * <p>
+ * Long 타입 단일 식별자를 가진 엔티티만 지원한다.
+ * <p>
+ * jobName 이 있으면 checkpoint row 를 잠가서(for update) 실행 중 표시(runId)를 남기고, 같은 이름의 작업이 실행 중이면 시작하지 않는다.
+ * chunk 도 update 전에 checkpoint row 를 잠그고 자기 runId 인지 확인하므로 lease 가 지나 다른 실행이 가져간 작업은 더 진행하지 않는다.
+ * 실패한 작업은 같은 update(BulkUpdate.fingerprint)로만 이어서 실행할 수 있다.
+ */
+@Slf4j
+@Component
+public class ChunkedBulkUpdater {
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final BulkUpdateProperties properties;
+    private final QueryResultCache queryResultCache;
+
+    public ChunkedBulkUpdater(EntityManager em, PlatformTransactionManager transactionManager,
+                              BulkUpdateProperties properties, QueryResultCache queryResultCache) {
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.queryResultCache = queryResultCache;
+    }
+
+    /**
+     * @return 변경된 전체 건수 (이어서 실행한 경우 이전 실행분 포함)
+     */
+    public long execute(BulkUpdate update) {
+        Target target = Target.of(em, update);
+        int chunkSize = update.getChunkSize() > 0 ? update.getChunkSize() : properties.getChunkSize();
+        boolean participating = TransactionSynchronizationManager.isActualTransactionActive();
+
+        if (participating) {
+            em.flush();
+        }
+
+        String runId = update.getJobName() == null ? null : UUID.randomUUID().toString();
+        BulkUpdateCheckpoint start = runId == null ? null : transactionTemplate.execute(status -> begin(update, runId));
+        Long lastKey = start == null ? null : start.getLastKey();
+        long totalUpdated = start == null ? 0 : start.getTotalUpdated();
+
+        if (lastKey != null) {
+            log.info("bulk update resumed. job = {}, lastKey = {}, totalUpdated = {}", update.getJobName(), lastKey, totalUpdated);
+        }
+
+        try {
+            int chunk = 0;
+            while (true) {
+                Long from = lastKey;
+                Chunk result = transactionTemplate.execute(status -> executeChunk(update, runId, target, from, chunkSize));
+                if (result == null) {
+                    break;
+                }
+
+                lastKey = result.upperKey;
+                totalUpdated += result.updated;
+
+                BulkUpdateProgress progress = new BulkUpdateProgress(update.getJobName(), ++chunk, lastKey, result.updated, totalUpdated);
+                log.debug("bulk update chunk committed. {}", progress);
+                update.getProgressListener().accept(progress);
+            }
+
+            if (runId != null) {
+                transactionTemplate.executeWithoutResult(status -> claimed(update.getJobName(), runId).complete());
+            }
+        } catch (RuntimeException e) {
+            //참여 중인 트랜잭션은 롤백되면서 begin 의 표시도 같이 없어진다.
+            if (runId != null && !participating) {
+                release(update.getJobName(), runId, e);
+            }
+            throw e;
+        }
+
+        if (participating) {
+            em.clear();
+        }
+        return totalUpdated;
+    }
+
+    /**
+     * 처음 실행하는 작업은 checkpoint 를 insert 하므로 동시에 처음 실행하면 한쪽은 pk 중복으로 실패한다.
+     */
+    private BulkUpdateCheckpoint begin(BulkUpdate update, String runId) {
+        String jobName = update.getJobName();
+        LocalDateTime now = LocalDateTime.now();
+
+        BulkUpdateCheckpoint checkpoint = em.find(BulkUpdateCheckpoint.class, jobName, LockModeType.PESSIMISTIC_WRITE);
+        if (checkpoint == null) {
+            checkpoint = new BulkUpdateCheckpoint(jobName, update.fingerprint());
+            em.persist(checkpoint);
+        } else if (checkpoint.isClaimed(now)) {
+            throw new IllegalStateException("bulk update job is already running. job = " + jobName +
+                    ", runId = " + checkpoint.getRunId() + ", leaseUntil = " + checkpoint.getLeaseUntil());
+        } else if (checkpoint.isCompleted()) {
+            checkpoint.restart(update.fingerprint());
+        } else if (!update.fingerprint().equals(checkpoint.getFingerprint())) {
+            throw new IllegalStateException("bulk update job can not be resumed with a different update. job = " + jobName);
+        }
+
+        checkpoint.claim(runId, now.plus(properties.getLease()));
+        return checkpoint;
+    }
+
+    /**
+     * checkpoint row 를 잠그고 아직 이 실행(runId)의 작업인지 확인한다.
+     */
+    private BulkUpdateCheckpoint claimed(String jobName, String runId) {
+        BulkUpdateCheckpoint checkpoint = em.find(BulkUpdateCheckpoint.class, jobName, LockModeType.PESSIMISTIC_WRITE);
+        if (checkpoint == null || !runId.equals(checkpoint.getRunId())) {
+            throw new IllegalStateException("bulk update job was taken over by another run. job = " + jobName +
+                    ", runId = " + runId);
+        }
+        return checkpoint;
+    }
+
+    /**
+     * 실패한 실행의 표시를 풀어서 lease 를 기다리지 않고 바로 이어서 실행할 수 있게 한다.
+     */
+    private void release(String jobName, String runId, RuntimeException failure) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                BulkUpdateCheckpoint checkpoint = em.find(BulkUpdateCheckpoint.class, jobName, LockModeType.PESSIMISTIC_WRITE);
+                if (checkpoint != null && runId.equals(checkpoint.getRunId())) {
+                    checkpoint.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    /**
+     * lastKey 이후 대상 row 중 chunkSize 번째 key 까지를 하나의 범위로 update 한다.
+     *
+     * @return 더 이상 대상이 없으면 null
+     */
+    private Chunk executeChunk(BulkUpdate update, String runId, Target target, Long lastKey, int chunkSize) {
+        BulkUpdateCheckpoint checkpoint = runId == null ? null : claimed(update.getJobName(), runId);
+
+        Long upperKey = upperKey(update, target, lastKey, chunkSize);
+        if (upperKey == null) {
+            return null;
+        }
+
+        Query query = em.createQuery("update " + target.versioned + target.entityName + " " + BulkUpdate.ALIAS +
+                " set " + update.getSet() +
+                " where " + target.range(lastKey) + " and " + target.id + " <= :upperKey" +
+                target.and(update.getWhere()));
+        bind(query, update.getParameters(), lastKey).setParameter("upperKey", upperKey);
+
+        if (!properties.getChunkTimeout().isZero()) {
+            query.setHint("javax.persistence.query.timeout", (int) properties.getChunkTimeout().toMillis());
+        }
+
+        int updated = query.executeUpdate();
+        queryResultCache.invalidateOnCompletion(update.getEntityType());
+
+        if (checkpoint != null) {
+            checkpoint.advance(upperKey, updated, LocalDateTime.now().plus(properties.getLease()));
+        }
+        return new Chunk(upperKey, updated);
+    }
+
+    private Long upperKey(BulkUpdate update, Target target, Long lastKey, int chunkSize) {
+        String from = " from " + target.entityName + " " + BulkUpdate.ALIAS +
+                " where " + target.range(lastKey) + target.and(update.getWhere());
+
+        List<Long> keys = bind(em.createQuery("select " + target.id + from + " order by " + target.id, Long.class),
+                update.getParameters(), lastKey)
+                .setFirstResult(chunkSize - 1)
+                .setMaxResults(1)
+                .getResultList();
+        if (!keys.isEmpty()) {
+            return keys.get(0);
+        }
+
+        //남은 row 가 chunkSize 보다 적은 마지막 chunk
+        return bind(em.createQuery("select max(" + target.id + ")" + from, Long.class), update.getParameters(), lastKey)
+                .getSingleResult();
+    }
+
+    /**
+     * 쿼리에 실제로 있는 파라미터만 바인딩한다. (set 절 전용 파라미터 등)
+     */
+    private static <Q extends Query> Q bind(Q query, Map<String, Object> parameters, Long lastKey) {
+        Set<String> names = query.getParameters().stream()
+                .map(Parameter::getName)
+                .collect(Collectors.toSet());
+
+        parameters.forEach((name, value) -> {
+            if (names.contains(name)) {
+                query.setParameter(name, value);
+            }
+        });
+        if (lastKey != null) {
+            query.setParameter("lastKey", lastKey);
+        }
+        return query;
+    }
+
+    private static class Target {
+        private final String entityName;
+        private final String id;
+        private final String versioned;
+
+        private Target(String entityName, String id, boolean versioned) {
+            this.entityName = entityName;
+            this.id = id;
+            //@Version 엔티티는 update versioned 로 version 도 같이 증가시켜 덮어쓰기를 막는다.
+            this.versioned = versioned ? "versioned " : "";
+        }
+
+        static Target of(EntityManager em, BulkUpdate update) {
+            EntityType<?> entityType = em.getMetamodel().entity(update.getEntityType());
+            if (entityType.getIdType().getJavaType() != Long.class) {
+                throw new IllegalArgumentException("Long id entity only. entity = " + entityType.getName());
+            }
+            String idName = entityType.getId(Long.class).getName();
+            return new Target(entityType.getName(), BulkUpdate.ALIAS + "." + idName, entityType.hasVersionAttribute());
+        }
+
+        String range(Long lastKey) {
+            return lastKey == null ? "1 = 1" : id + " > :lastKey";
+        }
+
+        String and(String where) {
+            return where == null ? "" : " and (" + where + ")";
+        }
+    }
+
+    private static class Chunk {
+        private final Long upperKey;
+        private final int updated;
+
+        private Chunk(Long upperKey, int updated) {
+            this.upperKey = upperKey;
+            this.updated = updated;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.springDataJpa.study.support.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 리포지토리 조회 메서드 결과를 (메서드, 파라미터) 단위로 캐시한다.
+ * 같은 도메인 타입(과 dependsOn 타입)의 save / delete / @Modifying 메서드가 실행되거나 엔티티 변경이 커밋되면 무효화된다.
+ *
+ * 쓰기 트랜잭션 안에서 호출되면 캐시를 거치지 않는다. (커밋 전 변경이 보이지 않으므로)
+ * 영속성 컨텍스트와 공유되면 안 되므로 DTO, 프로젝션, 스칼라 결과에만 사용한다.
+ * (엔티티 결과는 캐시하지 않고 그대로 돌려준다)
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedQuery {
+
+    /**
+     * 캐시 유지 시간 (10s, 5m, PT1H ...)
+     */
+    String ttl() default "60s";
+
+    long maximumSize() default 1_000;
+
+    /**
+     * 결과에 포함되는 다른 엔티티 타입 (join 한 t.name 등)
+     * 이 타입이 변경되어도 무효화된다.
+     */
+    Class<?>[] dependsOn() default {};
+}
@@ -0,0 +1,74 @@
+package com.springDataJpa.study.support.cache;
+
+import com.springDataJpa.study.support.repository.RepositoryInterceptorFactory;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @CachedQuery 메서드는 QueryResultCache 를 거치고
+ * (읽기 전용 트랜잭션이거나 트랜잭션 밖일 때만)
+ * save / delete / @Modifying 메서드는 실행 후(트랜잭션이 있으면 커밋 후에도 한 번 더) 도메인 타입 캐시를 무효화한다.
+ */
+@Component
+public class QueryCacheInterceptorFactory implements RepositoryInterceptorFactory {
+
+    private final QueryResultCache queryResultCache;
+
+    public QueryCacheInterceptorFactory(QueryResultCache queryResultCache) {
+        this.queryResultCache = queryResultCache;
+    }
+
+    @Override
+    public MethodInterceptor create(RepositoryInformation repositoryInformation) {
+        Class<?> domainType = repositoryInformation.getDomainType();
+        Map<Method, Optional<CachedQuery>> cachedQueries = new ConcurrentHashMap<>();
+
+        return invocation -> {
+            Method method = invocation.getMethod();
+
+            CachedQuery cachedQuery = cachedQueries.computeIfAbsent(method,
+                    m -> Optional.ofNullable(AnnotatedElementUtils.findMergedAnnotation(m, CachedQuery.class)))
+                    .orElse(null);
+            if (cachedQuery != null && isCacheableTransaction()) {
+                return queryResultCache.get(domainType, method, cachedQuery, invocation.getArguments(), () -> {
+                    try {
+                        return invocation.proceed();
+                    } catch (RuntimeException | Error e) {
+                        throw e;
+                    } catch (Throwable e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+            }
+
+            Object result = invocation.proceed();
+            if (isWrite(method)) {
+                queryResultCache.invalidateOnCompletion(domainType);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * 쓰기 트랜잭션 안에서는 아직 커밋되지 않은 변경이 캐시에 보이지 않으므로 캐시를 거치지 않는다.
+     */
+    private static boolean isCacheableTransaction() {
+        return !TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static boolean isWrite(Method method) {
+        String name = method.getName();
+        return name.startsWith("save") || name.startsWith("delete")
+                || AnnotatedElementUtils.hasAnnotation(method, Modifying.class);
+    }
+}
@@ -0,0 +1,86 @@
+package com.springDataJpa.study.support.cache;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 리포지토리를 거치지 않은 변경(dirty checking, em.persist ...)도 커밋되면 해당 타입의 쿼리 캐시를 무효화한다.
+ */
+@Component
+public class QueryCacheInvalidationListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final QueryResultCache queryResultCache;
+
+    public QueryCacheInvalidationListener(EntityManagerFactory entityManagerFactory, QueryResultCache queryResultCache) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.queryResultCache = queryResultCache;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        queryResultCache.invalidate(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        queryResultCache.invalidate(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        queryResultCache.invalidate(event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return true;
+    }
+
+    /**
+     * hibernate 5 에서 requiresPostCommitHandling 대신 호출되는 이전 이름
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+}
@@ -0,0 +1,192 @@
+package com.springDataJpa.study.support.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.Entity;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * @CachedQuery 메서드별 caffeine 캐시와 hit / miss 카운터
+ * 캐시는 도메인 타입(과 @CachedQuery.dependsOn 타입)별로 묶여 있어서 타입 단위로 무효화된다.
+ */
+@Slf4j
+@Component
+public class QueryResultCache {
+
+    private static final Object NULL = new Object();
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, MethodCache> caches = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Set<MethodCache>> cachesByType = new ConcurrentHashMap<>();
+
+    public QueryResultCache(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Object get(Class<?> domainType, Method method, CachedQuery cachedQuery, Object[] args, Supplier<Object> loader) {
+        MethodCache methodCache = caches.computeIfAbsent(method, m -> register(domainType, m, cachedQuery));
+        Key key = new Key(args);
+
+        Object cached = methodCache.cache.getIfPresent(key);
+        if (cached != null) {
+            methodCache.hits.increment();
+            return cached == NULL ? null : cached;
+        }
+
+        methodCache.misses.increment();
+        //조회 중에 무효화되면 이전 값일 수 있으므로 넣지 않는다.
+        long generation = methodCache.generation.get();
+        Object result = loader.get();
+        if (isCacheable(method, result)) {
+            result = unmodifiable(result);
+            if (methodCache.generation.get() == generation) {
+                methodCache.cache.put(key, result == null ? NULL : result);
+                //확인과 put 사이에 무효화된 경우
+                if (methodCache.generation.get() != generation) {
+                    methodCache.cache.invalidate(key);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 해당 엔티티 타입(하위 타입 포함)에 묶인 캐시를 모두 비운다.
+     */
+    public void invalidate(Class<?> entityType) {
+        cachesByType.forEach((domainType, methodCaches) -> {
+            if (domainType.isAssignableFrom(entityType) || entityType.isAssignableFrom(domainType)) {
+                methodCaches.forEach(MethodCache::invalidateAll);
+            }
+        });
+    }
+
+    /**
+     * 바로 무효화하고 트랜잭션이 있으면 완료 후에 한 번 더 무효화한다.
+     * (커밋 전에 다른 스레드가 이전 값을 다시 채워 넣는 경우 대비)
+     */
+    public void invalidateOnCompletion(Class<?> entityType) {
+        invalidate(entityType);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(entityType);
+                }
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        caches.values().forEach(MethodCache::invalidateAll);
+    }
+
+    private MethodCache register(Class<?> domainType, Method method, CachedQuery cachedQuery) {
+        String name = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+
+        MethodCache methodCache = new MethodCache(
+                Caffeine.newBuilder()
+                        .expireAfterWrite(DurationStyle.detectAndParse(cachedQuery.ttl()))
+                        .maximumSize(cachedQuery.maximumSize())
+                        .build(),
+                counter(name, "hit"),
+                counter(name, "miss"));
+
+        cachesByType.computeIfAbsent(domainType, t -> ConcurrentHashMap.newKeySet()).add(methodCache);
+        for (Class<?> dependsOn : cachedQuery.dependsOn()) {
+            cachesByType.computeIfAbsent(dependsOn, t -> ConcurrentHashMap.newKeySet()).add(methodCache);
+        }
+        return methodCache;
+    }
+
+    private Counter counter(String method, String result) {
+        return Counter.builder("repository.query.cache")
+                .description("@CachedQuery 조회 결과")
+                .tag("method", method)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static boolean isCacheable(Method method, Object result) {
+        Object sample = result;
+        if (result instanceof Optional) {
+            sample = ((Optional<?>) result).orElse(null);
+        } else if (result instanceof Collection) {
+            Collection<?> collection = (Collection<?>) result;
+            sample = collection.isEmpty() ? null : collection.iterator().next();
+        }
+
+        //프록시(Member$HibernateProxy$...)는 @Entity 가 상속되지 않으므로 실제 클래스로 확인
+        Class<?> type = sample == null ? null : Hibernate.getClass(sample);
+        if (type != null && type.isAnnotationPresent(Entity.class)) {
+            log.warn("@CachedQuery ignored, entity result can not be cached. method = {}", method);
+            return false;
+        }
+        return true;
+    }
+
+    private static Object unmodifiable(Object result) {
+        if (result instanceof List) {
+            return Collections.unmodifiableList(new ArrayList<>((List<?>) result));
+        }
+        return result;
+    }
+
+    private static class MethodCache {
+        private final Cache<Key, Object> cache;
+        private final Counter hits;
+        private final Counter misses;
+        private final AtomicLong generation = new AtomicLong();
+
+        private MethodCache(Cache<Key, Object> cache, Counter hits, Counter misses) {
+            this.cache = cache;
+            this.hits = hits;
+            this.misses = misses;
+        }
+
+        /**
+         * 세대를 먼저 올려서 진행 중인 조회가 이전 값을 넣지 못하게 한다.
+         */
+        private void invalidateAll() {
+            generation.incrementAndGet();
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * 컬렉션 파라미터는 호출 이후 변경될 수 있으므로 복사해서 키로 사용한다.
+     */
+    @EqualsAndHashCode
+    private static class Key {
+        private final List<Object> args;
+
+        private Key(Object[] args) {
+            List<Object> copy = new ArrayList<>(args.length);
+            for (Object arg : args) {
+                copy.add(arg instanceof Collection ? new ArrayList<>((Collection<?>) arg) : arg);
+            }
+            this.args = copy;
+        }
+    }
+}
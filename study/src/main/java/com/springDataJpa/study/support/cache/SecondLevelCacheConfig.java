@@ -0,0 +1,66 @@
+package com.springDataJpa.study.support.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.entity.Team;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Team / Team.members / Member 2차 캐시를 in-process caffeine(jcache) region 으로 구성한다.
+ * Team.members region 은 member id 만 가지고 있으므로 Member 도 함께 캐시한다.
+ * region 은 여기서 직접 만들고 hibernate 에는 만들어진 CacheManager 를 넘긴다.
+ *
+ * hit / miss / put 은 hibernate.second.level.cache.* (hibernate statistics),
+ * eviction 은 cache.evictions (jcache statistics) 로 노출된다.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String TEAM_REGION = Team.class.getName();
+    public static final String TEAM_MEMBERS_REGION = Team.class.getName() + ".members";
+    public static final String MEMBER_REGION = Member.class.getName();
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(SecondLevelCacheProperties properties, MeterRegistry meterRegistry) {
+        //기본 CacheManager 는 jvm 안에서 공유되므로 애플리케이션 컨텍스트(테스트 컨텍스트 포함)마다 따로 만든다.
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("study-hibernate-" + UUID.randomUUID()), provider.getDefaultClassLoader());
+
+        createRegion(cacheManager, TEAM_REGION, properties.getTeam(), meterRegistry);
+        createRegion(cacheManager, TEAM_MEMBERS_REGION, properties.getTeamMembers(), meterRegistry);
+        createRegion(cacheManager, MEMBER_REGION, properties.getMember(), meterRegistry);
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static void createRegion(CacheManager cacheManager, String region,
+                                     SecondLevelCacheProperties.Region settings, MeterRegistry meterRegistry) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(settings.getMaximumSize()));
+        configuration.setExpireAfterWrite(OptionalLong.of(settings.getExpireAfterWrite().toNanos()));
+        configuration.setStatisticsEnabled(true);
+
+        Cache<Object, Object> cache = cacheManager.createCache(region, configuration);
+        JCacheMetrics.monitor(meterRegistry, cache, "region", region);
+    }
+}
@@ -0,0 +1,38 @@
+package com.springDataJpa.study.support.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * hibernate 2차 캐시 region 별 크기 / 만료 설정
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.second-level-cache")
+public class SecondLevelCacheProperties {
+
+    /**
+     * Team 엔티티 region
+     */
+    private Region team = new Region();
+
+    /**
+     * Team.members 컬렉션 region (member id 목록만 저장)
+     */
+    private Region teamMembers = new Region();
+
+    /**
+     * Member 엔티티 region
+     */
+    private Region member = new Region();
+
+    @Getter
+    @Setter
+    public static class Region {
+        private long maximumSize = 10_000;
+        private Duration expireAfterWrite = Duration.ofMinutes(30);
+    }
+}
@@ -0,0 +1,75 @@
+package com.springDataJpa.study.support.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * study.datasource.replica.url 이 있으면 spring.datasource(primary) 와 replica 를 묶은 라우팅 datasource 를 등록한다.
+ * 없으면 boot 기본 datasource 하나만 사용
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "study.datasource.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "study.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(Environment environment) {
+        //DataSourceProperties 빈이 두 개가 되지 않도록 직접 바인딩
+        DataSourceProperties properties = Binder.get(environment)
+                .bind("study.datasource.replica", DataSourceProperties.class)
+                .get();
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 @Qualifier("replicaDataSource") HikariDataSource replica,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, replica, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+
+        //기본값을 지정하지 않으면 기본값 확인용 커넥션을 시작 시점에 바로 얻어온다.
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(routingDataSource);
+        dataSource.setDefaultAutoCommit(primary.isAutoCommit());
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    /**
+     * 기본값(DELAYED_ACQUISITION_AND_HOLD)은 OSIV 에서 요청 동안 처음 얻은 커넥션을 계속 사용하므로
+     * 트랜잭션마다 다시 라우팅되도록 트랜잭션이 끝나면 커넥션을 반환한다.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return properties -> properties.put("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+}
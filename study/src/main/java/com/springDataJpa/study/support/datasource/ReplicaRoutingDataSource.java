@@ -0,0 +1,64 @@
+package com.springDataJpa.study.support.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 읽기 전용 트랜잭션(@Transactional(readOnly = true), SimpleJpaRepository 조회 메서드)은 replica, 나머지는 primary 로 보낸다.
+ * 트랜잭션 시작 후에 커넥션을 얻어야 readOnly 여부를 알 수 있으므로 LazyConnectionDataSourceProxy 로 감싸서 사용한다.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    /**
+     * MeterRegistry 는 datasource 메트릭 때문에 datasource 보다 늦게 만들어지므로 처음 라우팅할 때 꺼낸다.
+     */
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private volatile Map<Target, Counter> routes;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ObjectProvider<MeterRegistry> meterRegistry) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Target target = TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Target.REPLICA : Target.PRIMARY;
+        counter(target).increment();
+        return target;
+    }
+
+    /**
+     * 커넥션을 얻을 때마다 호출되므로 처음 한 번만 잠그고 이후에는 volatile 읽기만 한다.
+     */
+    private Counter counter(Target target) {
+        Map<Target, Counter> counters = routes;
+        if (counters == null) {
+            synchronized (this) {
+                counters = routes;
+                if (counters == null) {
+                    counters = new EnumMap<>(Target.class);
+                    for (Target t : Target.values()) {
+                        counters.put(t, Counter.builder("datasource.routing")
+                                .description("라우팅된 커넥션 획득 수")
+                                .tag("target", t.name().toLowerCase())
+                                .register(meterRegistry.getObject()));
+                    }
+                    routes = counters;
+                }
+            }
+        }
+        return counters.get(target);
+    }
+}
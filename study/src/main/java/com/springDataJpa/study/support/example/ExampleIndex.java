@@ -0,0 +1,36 @@
+package com.springDataJpa.study.support.example;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Query by Example 의 문자열 매칭(STARTING / CONTAINING / ENDING)이 인덱스를 탈 수 있도록 postgres 인덱스를 만든다.
+ * study.example.create-indexes=true 이고 postgres 일 때만 ddl-auto 스키마 생성에 포함된다. (ExampleIndexIntegrator)
+ *
+ * PREFIX  => btree (col text_pattern_ops), like 'x%'
+ * TRIGRAM => gin (col gin_trgm_ops), like '%x%' / like '%x' (pg_trgm 확장)
+ *
+ * PREFIX 는 like 의 오른쪽이 상수일 때만 플래너가 범위 조건으로 바꿀 수 있다.
+ * ExampleQueryExecutor 는 값을 바인딩하므로 custom plan 에서만 인덱스를 타고,
+ * 같은 statement 가 반복되어 generic plan 으로 바뀌면(pgjdbc prepareThreshold 이후, plan_cache_mode = auto)
+ * seq scan 이 될 수 있다. 필요하면 plan_cache_mode = force_custom_plan 으로 실행한다.
+ * TRIGRAM 은 바인딩된 값에서도 인덱스를 탄다.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ExampleIndex {
+
+    Type[] value() default Type.PREFIX;
+
+    /**
+     * ExampleMatcher 의 ignoreCase 는 lower(col) 로 비교하므로 lower(col) 표현식 인덱스를 만든다.
+     */
+    boolean ignoreCase() default false;
+
+    enum Type {
+        PREFIX,
+        TRIGRAM
+    }
+}
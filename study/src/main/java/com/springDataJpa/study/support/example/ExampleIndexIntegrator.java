@@ -0,0 +1,102 @@
+package com.springDataJpa.study.support.example;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.model.relational.AuxiliaryDatabaseObject;
+import org.hibernate.boot.model.relational.SimpleAuxiliaryDatabaseObject;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.mapping.Column;
+import org.hibernate.mapping.PersistentClass;
+import org.hibernate.mapping.Selectable;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * @ExampleIndex 가 붙은 컬럼의 인덱스를 auxiliary database object 로 등록한다.
+ * integrator 는 스키마 생성(SchemaManagementToolCoordinator) 전에 실행되므로 ddl-auto 에 포함되고,
+ * 테이블 / 컬럼 이름은 naming strategy 가 적용된 매핑에서 가져온다.
+ */
+public class ExampleIndexIntegrator implements Integrator {
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        indexes(metadata, sessionFactory.getJdbcServices().getDialect())
+                .ifPresent(indexes -> metadata.getDatabase().addAuxiliaryDatabaseObject(indexes));
+    }
+
+    /**
+     * postgres 가 아니거나 @ExampleIndex 가 없으면 empty
+     */
+    static Optional<AuxiliaryDatabaseObject> indexes(Metadata metadata, Dialect dialect) {
+        if (!(dialect instanceof PostgreSQL81Dialect)) {
+            return Optional.empty();
+        }
+
+        List<String> creates = new ArrayList<>();
+        List<String> drops = new ArrayList<>();
+        for (PersistentClass entity : metadata.getEntityBindings()) {
+            String table = entity.getTable().getQuotedName(dialect);
+            for (Class<?> type = entity.getMappedClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+                for (Field field : type.getDeclaredFields()) {
+                    ExampleIndex index = field.getAnnotation(ExampleIndex.class);
+                    if (index != null) {
+                        String column = column(entity, field.getName(), dialect);
+                        for (ExampleIndex.Type indexType : index.value()) {
+                            creates.add(createIndex(table, column, indexType, index.ignoreCase()));
+                            drops.add("drop index if exists " + indexName(table, column, indexType, index.ignoreCase()));
+                        }
+                    }
+                }
+            }
+        }
+
+        if (creates.isEmpty()) {
+            return Optional.empty();
+        }
+        if (creates.stream().anyMatch(sql -> sql.contains("gin_trgm_ops"))) {
+            creates.add(0, "create extension if not exists pg_trgm");
+        }
+        return Optional.of(new SimpleAuxiliaryDatabaseObject(
+                Collections.emptySet(), null, null, creates.toArray(new String[0]), drops.toArray(new String[0])));
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    static String createIndex(String table, String column, ExampleIndex.Type type, boolean ignoreCase) {
+        String name = indexName(table, column, type, ignoreCase);
+        String expression = ignoreCase ? "lower(" + column + ")" : column;
+        if (type == ExampleIndex.Type.TRIGRAM) {
+            return "create index if not exists " + name + " on " + table + " using gin (" + expression + " gin_trgm_ops)";
+        }
+        return "create index if not exists " + name + " on " + table + " (" + expression + " text_pattern_ops)";
+    }
+
+    static String indexName(String table, String column, ExampleIndex.Type type, boolean ignoreCase) {
+        return ("ix_" + table + "_" + column + (ignoreCase ? "_lower" : "")
+                + (type == ExampleIndex.Type.TRIGRAM ? "_trgm" : "_prefix"))
+                .replace("\"", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static String column(PersistentClass entity, String property, Dialect dialect) {
+        Iterator<Selectable> columns = entity.getProperty(property).getValue().getColumnIterator();
+        Selectable selectable = columns.next();
+        if (!(selectable instanceof Column) || columns.hasNext()) {
+            throw new IllegalStateException("@ExampleIndex requires a single column property: "
+                    + entity.getEntityName() + "." + property);
+        }
+        return ((Column) selectable).getQuotedName(dialect);
+    }
+}
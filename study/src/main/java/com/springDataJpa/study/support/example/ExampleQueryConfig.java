@@ -0,0 +1,23 @@
+package com.springDataJpa.study.support.example;
+
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class ExampleQueryConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer exampleIndexCustomizer(ExampleQueryProperties properties) {
+        return hibernateProperties -> {
+            if (properties.isCreateIndexes()) {
+                hibernateProperties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                        (IntegratorProvider) () -> List.of(new ExampleIndexIntegrator()));
+            }
+        };
+    }
+}
@@ -0,0 +1,334 @@
+package com.springDataJpa.study.support.example;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.ExampleMatcherAccessor;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.data.util.DirectFieldAccessFallbackBeanWrapper;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Query by Example 실행기
+ *
+ * SimpleJpaRepository 는 호출마다 criteria 를 새로 만들고 렌더링하지만,
+ * 여기서는 probe 에서 값이 있는 경로 / 매칭 방식(모양)이 같으면 미리 만든 jpql 에 값만 바인딩한다.
+ * 매칭 방식은 ExampleMatcher 를 그대로 따른다.
+ *
+ * EXACT / DEFAULT => col = :p
+ * STARTING        => col like 'x%'   (@ExampleIndex PREFIX, generic plan 에서는 인덱스를 타지 않음 - ExampleIndex 참고)
+ * CONTAINING      => col like '%x%'  (@ExampleIndex TRIGRAM)
+ * ENDING          => col like '%x'   (@ExampleIndex TRIGRAM)
+ * ignoreCase      => lower(col) 과 lower(:p) 비교 (@ExampleIndex ignoreCase)
+ * null            => NullHandler.INCLUDE 면 is null, IGNORE 면 조건에서 제외
+ *
+ * 연관 엔티티(team)는 값이 있는 속성이 있을 때만 inner join 한다.
+ */
+@Component
+public class ExampleQueryExecutor {
+
+    private static final String ALIAS = "e";
+    private static final EscapeCharacter ESCAPE = EscapeCharacter.DEFAULT;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final ExampleQueryProperties properties;
+    private final Counter hits;
+    private final Counter misses;
+    private final Map<ShapeKey, Shape> shapes = new ConcurrentHashMap<>();
+
+    public ExampleQueryExecutor(ExampleQueryProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hits = meterRegistry.counter("example.query.shape", "result", "hit");
+        this.misses = meterRegistry.counter("example.query.shape", "result", "miss");
+    }
+
+    public <S> List<S> findAll(Example<S> example, Sort sort) {
+        List<Criterion> criteria = criteria(example);
+        Shape shape = shape(example, criteria);
+
+        TypedQuery<S> query = em.createQuery(QueryUtils.applySorting(shape.select, sort, ALIAS), example.getProbeType());
+        bind(query, criteria);
+        return query.getResultList();
+    }
+
+    public <S> Page<S> findAll(Example<S> example, Pageable pageable) {
+        List<Criterion> criteria = criteria(example);
+        Shape shape = shape(example, criteria);
+
+        TypedQuery<S> query = em.createQuery(QueryUtils.applySorting(shape.select, pageable.getSort(), ALIAS), example.getProbeType());
+        bind(query, criteria);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(shape, criteria));
+    }
+
+    public long count(Example<?> example) {
+        List<Criterion> criteria = criteria(example);
+        return count(shape(example, criteria), criteria);
+    }
+
+    public int shapeCount() {
+        return shapes.size();
+    }
+
+    private long count(Shape shape, List<Criterion> criteria) {
+        TypedQuery<Long> query = em.createQuery(shape.count, Long.class);
+        bind(query, criteria);
+        return query.getSingleResult();
+    }
+
+    private Shape shape(Example<?> example, List<Criterion> criteria) {
+        ShapeKey key = new ShapeKey(example.getProbeType(), example.getMatcher().getMatchMode(), criteria);
+        Shape shape = shapes.get(key);
+        if (shape != null) {
+            hits.increment();
+            return shape;
+        }
+
+        misses.increment();
+        if (shapes.size() >= properties.getShapeCacheMaxSize()) {
+            shapes.clear();
+        }
+        shape = Shape.of(em.getMetamodel().entity(example.getProbeType()).getName(), example.getMatcher(), criteria);
+        shapes.put(key, shape);
+        return shape;
+    }
+
+    private static void bind(TypedQuery<?> query, List<Criterion> criteria) {
+        for (int i = 0; i < criteria.size(); i++) {
+            Criterion criterion = criteria.get(i);
+            if (criterion.value != null) {
+                query.setParameter("p" + i, criterion.bindValue());
+            }
+        }
+    }
+
+    private List<Criterion> criteria(Example<?> example) {
+        List<Criterion> criteria = new ArrayList<>();
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        collect(em.getMetamodel().entity(example.getProbeType()), example.getProbe(), "", List.of(),
+                new ExampleMatcherAccessor(example.getMatcher()), criteria, visited);
+        return criteria;
+    }
+
+    /**
+     * jpql 이 매번 같도록 속성 이름 순으로 방문한다.
+     *
+     * @param joins 지금까지 지나온 연관 엔티티 경로 (team, team.owner ...), embedded 는 join 하지 않는다.
+     */
+    private void collect(ManagedType<?> type, Object value, String prefix, List<String> joins,
+                         ExampleMatcherAccessor accessor, List<Criterion> criteria, Set<Object> visited) {
+        if (!visited.add(value)) {
+            return;
+        }
+
+        BeanWrapper wrapper = new DirectFieldAccessFallbackBeanWrapper(value);
+        List<SingularAttribute<?, ?>> attributes = new ArrayList<>(type.getSingularAttributes());
+        attributes.sort(Comparator.comparing(SingularAttribute::getName));
+
+        for (SingularAttribute<?, ?> attribute : attributes) {
+            String path = prefix + attribute.getName();
+            if (accessor.isIgnoredPath(path)) {
+                continue;
+            }
+
+            Optional<Object> transformed = accessor.getValueTransformerForPath(path)
+                    .apply(Optional.ofNullable(wrapper.getPropertyValue(attribute.getName())));
+            if (transformed.isEmpty()) {
+                if (accessor.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE) {
+                    criteria.add(new Criterion(path, joins, null, null, false));
+                }
+                continue;
+            }
+
+            Object attributeValue = transformed.get();
+            switch (attribute.getPersistentAttributeType()) {
+                case EMBEDDED:
+                    collect((ManagedType<?>) attribute.getType(), attributeValue, path + ".", joins, accessor, criteria, visited);
+                    break;
+                case MANY_TO_ONE:
+                case ONE_TO_ONE:
+                    List<String> associationJoins = new ArrayList<>(joins);
+                    associationJoins.add(path);
+                    collect((ManagedType<?>) attribute.getType(), attributeValue, path + ".", associationJoins, accessor, criteria, visited);
+                    break;
+                case BASIC:
+                    if (attributeValue instanceof String) {
+                        ExampleMatcher.StringMatcher stringMatcher = accessor.getStringMatcherForPath(path);
+                        if (stringMatcher == ExampleMatcher.StringMatcher.REGEX) {
+                            throw new IllegalArgumentException("Unsupported StringMatcher " + stringMatcher);
+                        }
+                        criteria.add(new Criterion(path, joins, attributeValue, stringMatcher, accessor.isIgnoreCaseForPath(path)));
+                    } else {
+                        criteria.add(new Criterion(path, joins, attributeValue, null, false));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * probe 의 값 하나, value 가 null 이면 is null
+     */
+    private static class Criterion {
+        private final String path;
+        private final List<String> joins;
+        private final Object value;
+        private final ExampleMatcher.StringMatcher stringMatcher;
+        private final boolean ignoreCase;
+
+        private Criterion(String path, List<String> joins, Object value, ExampleMatcher.StringMatcher stringMatcher,
+                          boolean ignoreCase) {
+            this.path = path;
+            this.joins = joins;
+            this.value = value;
+            this.stringMatcher = stringMatcher;
+            this.ignoreCase = ignoreCase;
+        }
+
+        private String shape() {
+            return path + ":" + (value == null ? "null" : stringMatcher + ":" + ignoreCase);
+        }
+
+        private boolean like() {
+            return stringMatcher == ExampleMatcher.StringMatcher.STARTING
+                    || stringMatcher == ExampleMatcher.StringMatcher.ENDING
+                    || stringMatcher == ExampleMatcher.StringMatcher.CONTAINING;
+        }
+
+        private Object bindValue() {
+            if (!like()) {
+                return value;
+            }
+
+            String escaped = ESCAPE.escape((String) value);
+            switch (stringMatcher) {
+                case STARTING:
+                    return escaped + "%";
+                case ENDING:
+                    return "%" + escaped;
+                default:
+                    return "%" + escaped + "%";
+            }
+        }
+    }
+
+    private static class ShapeKey {
+        private final Class<?> probeType;
+        private final ExampleMatcher.MatchMode matchMode;
+        private final List<String> criteria;
+
+        private ShapeKey(Class<?> probeType, ExampleMatcher.MatchMode matchMode, List<Criterion> criteria) {
+            this.probeType = probeType;
+            this.matchMode = matchMode;
+            this.criteria = new ArrayList<>(criteria.size());
+            criteria.forEach(c -> this.criteria.add(c.shape()));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ShapeKey)) {
+                return false;
+            }
+            ShapeKey that = (ShapeKey) o;
+            return probeType.equals(that.probeType) && matchMode == that.matchMode && criteria.equals(that.criteria);
+        }
+
+        @Override
+        public int hashCode() {
+            return (probeType.hashCode() * 31 + matchMode.hashCode()) * 31 + criteria.hashCode();
+        }
+    }
+
+    /**
+     * 모양 하나에 대한 select / count jpql, 파라미터 이름은 criteria 순서대로 p0, p1 ...
+     */
+    private static class Shape {
+        private final String select;
+        private final String count;
+
+        private Shape(String select, String count) {
+            this.select = select;
+            this.count = count;
+        }
+
+        private static Shape of(String entityName, ExampleMatcher matcher, List<Criterion> criteria) {
+            StringBuilder from = new StringBuilder(" from ").append(entityName).append(' ').append(ALIAS);
+            Map<String, String> joins = new HashMap<>();
+            List<String> predicates = new ArrayList<>(criteria.size());
+
+            for (int i = 0; i < criteria.size(); i++) {
+                Criterion criterion = criteria.get(i);
+                String expression = expression(criterion, from, joins);
+                if (criterion.value == null) {
+                    predicates.add(expression + " is null");
+                } else if (criterion.stringMatcher == null) {
+                    predicates.add(expression + " = :p" + i);
+                } else {
+                    String left = criterion.ignoreCase ? "lower(" + expression + ")" : expression;
+                    String right = criterion.ignoreCase ? "lower(:p" + i + ")" : ":p" + i;
+                    predicates.add(criterion.like()
+                            ? left + " like " + right + " escape '" + ESCAPE.getEscapeCharacter() + "'"
+                            : left + " = " + right);
+                }
+            }
+
+            String where = predicates.isEmpty() ? "" : " where " + String.join(
+                    matcher.isAllMatching() ? " and " : " or ", predicates);
+            return new Shape("select " + ALIAS + from + where, "select count(" + ALIAS + ")" + from + where);
+        }
+
+        /**
+         * team.name => inner join e.team e_team, e_team.name
+         */
+        private static String expression(Criterion criterion, StringBuilder from, Map<String, String> joins) {
+            String owner = ALIAS;
+            String ownerPath = "";
+            for (String join : criterion.joins) {
+                String alias = joins.get(join);
+                if (alias == null) {
+                    alias = ALIAS + "_" + join.replace('.', '_');
+                    from.append(" inner join ").append(owner).append('.').append(join.substring(ownerPath.length()))
+                            .append(' ').append(alias);
+                    joins.put(join, alias);
+                }
+                owner = alias;
+                ownerPath = join + ".";
+            }
+            return owner + "." + criterion.path.substring(ownerPath.length());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.springDataJpa.study.support.example;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.example")
+public class ExampleQueryProperties {
+
+    /**
+     * 보관할 최대 example 모양(jpql) 수, 넘으면 비운다.
+     */
+    private int shapeCacheMaxSize = 256;
+
+    /**
+     * @ExampleIndex 인덱스를 ddl-auto 스키마 생성에 포함 (postgres 만)
+     */
+    private boolean createIndexes = false;
+}
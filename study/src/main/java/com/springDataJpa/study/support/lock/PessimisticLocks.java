@@ -0,0 +1,58 @@
+package com.springDataJpa.study.support.lock;
+
+import org.hibernate.LockOptions;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.Query;
+import java.time.Duration;
+
+/**
+ * PESSIMISTIC_WRITE(for update) 를 기다리는 방식별로 적용하는 유틸
+ * 잠금은 트랜잭션이 끝날 때 풀리므로 반드시 트랜잭션 안에서 호출한다.
+ *
+ * skipLocked => for update skip locked, 다른 트랜잭션이 잡고 있는 행은 건너뛴다. (작업 큐)
+ * noWait     => for update nowait, 잡혀 있으면 바로 PessimisticLockException / LockTimeoutException
+ * timeout    => for update, 최대 timeout 만큼 기다린다.
+ */
+public final class PessimisticLocks {
+
+    private PessimisticLocks() {
+    }
+
+    public static <Q extends Query> Q skipLocked(Q query) {
+        return lock(query, LockOptions.SKIP_LOCKED);
+    }
+
+    public static <Q extends Query> Q noWait(Q query) {
+        return lock(query, LockOptions.NO_WAIT);
+    }
+
+    /**
+     * postgres dialect 는 양수 lock timeout 힌트를 sql 에 반영하지 않으므로
+     * 현재 트랜잭션에만 적용되는 lock_timeout 을 같이 설정한다.
+     */
+    public static <Q extends Query> Q timeout(EntityManager em, Q query, Duration timeout) {
+        long millis = Math.max(timeout.toMillis(), 1);
+        if (isPostgres(em)) {
+            em.createNativeQuery("select cast(set_config('lock_timeout', :timeout, true) as varchar)")
+                    .setParameter("timeout", millis + "ms")
+                    .getSingleResult();
+        }
+        return lock(query, (int) Math.min(millis, Integer.MAX_VALUE));
+    }
+
+    private static <Q extends Query> Q lock(Q query, int timeout) {
+        query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        query.setHint(AvailableSettings.JPA_LOCK_TIMEOUT, timeout);
+        return query;
+    }
+
+    private static boolean isPostgres(EntityManager em) {
+        return em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQL81Dialect;
+    }
+}
@@ -0,0 +1,28 @@
+package com.springDataJpa.study.support.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * 순수 jpa 리포지토리(jpaRepository 패키지의 @Repository 클래스) 의 public 메서드 실행 시간과 row 수를 기록한다.
+ */
+@Aspect
+@Component
+public class JpaRepositoryMetricsAspect {
+
+    private final RepositoryMetrics repositoryMetrics;
+
+    public JpaRepositoryMetricsAspect(RepositoryMetrics repositoryMetrics) {
+        this.repositoryMetrics = repositoryMetrics;
+    }
+
+    @Around("within(com.springDataJpa.study.jpaRepository..*)" +
+            " && @within(org.springframework.stereotype.Repository)" +
+            " && execution(public * *(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        return repositoryMetrics.record(joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                joinPoint.getSignature().getName(), true, joinPoint::proceed);
+    }
+}
@@ -0,0 +1,28 @@
+package com.springDataJpa.study.support.metrics;
+
+import com.springDataJpa.study.support.repository.RepositoryInterceptorFactory;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.stereotype.Component;
+
+/**
+ * spring data 리포지토리 메서드가 돌려준 row 수를 repository.rows 로 기록한다.
+ * (실행 시간은 spring.data.repository.invocations)
+ */
+@Component
+public class RepositoryMetricsInterceptorFactory implements RepositoryInterceptorFactory {
+
+    private final RepositoryMetrics repositoryMetrics;
+
+    public RepositoryMetricsInterceptorFactory(RepositoryMetrics repositoryMetrics) {
+        this.repositoryMetrics = repositoryMetrics;
+    }
+
+    @Override
+    public MethodInterceptor create(RepositoryInformation repositoryInformation) {
+        String repository = repositoryInformation.getRepositoryInterface().getSimpleName();
+
+        return invocation -> repositoryMetrics.record(repository, invocation.getMethod().getName(), false,
+                invocation::proceed);
+    }
+}
@@ -0,0 +1,23 @@
+package com.springDataJpa.study.support.paging;
+
+/**
+ * Page 의 total count 를 구하는 방식
+ * 어떤 모드든 content 가 pageSize 보다 적거나 마지막 페이지면 count 쿼리는 생략된다.
+ */
+public enum CountMode {
+
+    /**
+     * 매번 count 쿼리 실행
+     */
+    EXACT,
+
+    /**
+     * (count query, parameter) 별로 study.paging.count-cache-ttl 동안 캐시
+     */
+    CACHED,
+
+    /**
+     * postgres 통계(pg_class.reltuples, explain) 기반 추정치, 추정이 불가능하면 CACHED 로 동작
+     */
+    APPROXIMATE
+}
@@ -0,0 +1,50 @@
+package com.springDataJpa.study.support.paging;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * count 쿼리와 바인딩 파라미터, 추정치 계산에 필요한 정보를 담는다.
+ */
+@Getter
+public class CountQuery {
+
+    private final String query;
+    private final boolean nativeQuery;
+    private final Map<String, Object> parameters;
+    private String estimateTable;
+
+    private CountQuery(String query, boolean nativeQuery, Map<String, Object> parameters) {
+        this.query = query;
+        this.nativeQuery = nativeQuery;
+        this.parameters = parameters;
+    }
+
+    public static CountQuery jpql(String query) {
+        return new CountQuery(query, false, new LinkedHashMap<>());
+    }
+
+    public static CountQuery nativeQuery(String query) {
+        return new CountQuery(query, true, new LinkedHashMap<>());
+    }
+
+    public CountQuery param(String name, Object value) {
+        parameters.put(name, value);
+        return this;
+    }
+
+    /**
+     * 조건이 없는 count 쿼리일 때 pg_class.reltuples 로 추정할 테이블
+     */
+    public CountQuery estimateFrom(String table) {
+        this.estimateTable = table;
+        return this;
+    }
+
+    public Map<String, Object> getParameters() {
+        return Collections.unmodifiableMap(parameters);
+    }
+}
@@ -0,0 +1,74 @@
+package com.springDataJpa.study.support.paging;
+
+import com.springDataJpa.study.entity.Member;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 마지막으로 읽은 (username, member_id) 를 담는 keyset cursor
+ * url 에 그대로 실을 수 있도록 base64(url-safe) 로 인코딩한다.
+ * username 이 null 이면 "id" 만, 아니면 "id:username" (빈 문자열과 null 을 구분한다)
+ *
+ * 정렬은 username desc nulls first, member_id desc (postgres 의 desc 기본값) 이므로
+ * null 다음 window 는 (username is null and id < :id) or username is not null 로 이어서 읽는다.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public class MemberCursor {
+
+    private static final char SEPARATOR = ':';
+
+    private final String username;
+    private final Long id;
+
+    public MemberCursor(String username, Long id) {
+        this.username = username;
+        this.id = id;
+    }
+
+    public static MemberCursor of(Member member) {
+        return new MemberCursor(member.getUsername(), member.getId());
+    }
+
+    /**
+     * 비어있는 cursor 는 첫 window 를 의미하므로 null 을 돌려준다.
+     */
+    public static MemberCursor decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid member cursor: " + cursor, e);
+        }
+
+        int index = decoded.indexOf(SEPARATOR);
+        if (index == 0) {
+            throw new IllegalArgumentException("invalid member cursor: " + cursor);
+        }
+
+        try {
+            if (index < 0) {
+                return new MemberCursor(null, Long.valueOf(decoded));
+            }
+            Long id = Long.valueOf(decoded.substring(0, index));
+            return new MemberCursor(decoded.substring(index + 1), id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid member cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        String raw = username == null ? String.valueOf(id) : id + String.valueOf(SEPARATOR) + username;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,180 @@
+package com.springDataJpa.study.support.paging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * content 쿼리 결과와 count 쿼리를 받아 Page 를 만든다.
+ * count 쿼리는 PageableExecutionUtils 로 지연 실행되므로 첫 페이지의 content 가 pageSize 보다 적거나
+ * 마지막 페이지인 경우에는 실행되지 않는다.
+ */
+@Slf4j
+@Component
+public class PageCountExecutor {
+
+    private static final ObjectMapper EXPLAIN_READER = new ObjectMapper();
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final PagingProperties properties;
+    private final Map<CountKey, CachedCount> cache = new ConcurrentHashMap<>();
+
+    private volatile Boolean postgres;
+
+    public PageCountExecutor(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource, PagingProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.properties = properties;
+    }
+
+    public <T> Page<T> page(List<T> content, Pageable pageable, CountQuery countQuery, CountMode mode) {
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(countQuery, mode));
+    }
+
+    public long count(CountQuery countQuery, CountMode mode) {
+        switch (mode) {
+            case CACHED:
+                return cached(countQuery);
+            case APPROXIMATE:
+                Long estimate = estimate(countQuery);
+                return estimate != null ? estimate : cached(countQuery);
+            default:
+                return exact(countQuery);
+        }
+    }
+
+    public void evictAll() {
+        cache.clear();
+    }
+
+    private long cached(CountQuery countQuery) {
+        long ttl = properties.getCountCacheTtl().toNanos();
+        if (ttl <= 0) {
+            return exact(countQuery);
+        }
+
+        CountKey key = new CountKey(countQuery.getQuery(), countQuery.getParameters());
+        long now = System.nanoTime();
+        CachedCount cached = cache.get(key);
+        if (cached != null && cached.expiresAt - now > 0) {
+            return cached.count;
+        }
+
+        long count = exact(countQuery);
+        if (cache.size() >= properties.getCountCacheMaxSize()) {
+            cache.values().removeIf(c -> c.expiresAt - now <= 0);
+            if (cache.size() >= properties.getCountCacheMaxSize()) {
+                cache.clear();
+            }
+        }
+        cache.put(key, new CachedCount(count, now + ttl));
+        return count;
+    }
+
+    private long exact(CountQuery countQuery) {
+        Query query = countQuery.isNativeQuery()
+                ? em.createNativeQuery(countQuery.getQuery())
+                : em.createQuery(countQuery.getQuery());
+        countQuery.getParameters().forEach(query::setParameter);
+
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    /**
+     * 조건 없는 count 는 pg_class.reltuples, native count 는 explain 의 row 추정치를 사용한다.
+     * postgres 가 아니거나 통계가 없으면 null
+     */
+    private Long estimate(CountQuery countQuery) {
+        if (!isPostgres()) {
+            return null;
+        }
+
+        try {
+            if (countQuery.getEstimateTable() != null && countQuery.getParameters().isEmpty()) {
+                Long reltuples = jdbcTemplate.queryForObject(
+                        "select reltuples::bigint from pg_class where relname = :table",
+                        Map.of("table", countQuery.getEstimateTable().toLowerCase()), Long.class);
+                return reltuples != null && reltuples > 0 ? reltuples : null;
+            }
+
+            if (countQuery.isNativeQuery()) {
+                String plan = jdbcTemplate.queryForObject("explain (format json) " + countQuery.getQuery(),
+                        countQuery.getParameters(), String.class);
+                return planRows(plan);
+            }
+        } catch (DataAccessException e) {
+            log.debug("count estimate failed, fallback to exact count. query = {}", countQuery.getQuery(), e);
+        }
+
+        return null;
+    }
+
+    private Long planRows(String plan) {
+        try {
+            JsonNode node = EXPLAIN_READER.readTree(plan).path(0).path("Plan");
+            if ("Aggregate".equals(node.path("Node Type").asText()) && node.has("Plans")) {
+                node = node.path("Plans").path(0);
+            }
+            return node.has("Plan Rows") ? node.path("Plan Rows").asLong() : null;
+        } catch (Exception e) {
+            log.debug("unreadable explain output = {}", plan, e);
+            return null;
+        }
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            try {
+                String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+                postgres = "PostgreSQL".equalsIgnoreCase(product);
+            } catch (MetaDataAccessException e) {
+                postgres = false;
+            }
+        }
+        return postgres;
+    }
+
+    @EqualsAndHashCode
+    private static class CountKey {
+        private final String query;
+        private final Map<String, Object> parameters;
+
+        private CountKey(String query, Map<String, Object> parameters) {
+            this.query = query;
+            this.parameters = new HashMap<>(parameters);
+        }
+    }
+
+    private static class CachedCount {
+        private final long count;
+        private final long expiresAt;
+
+        private CachedCount(long count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.springDataJpa.study.support.paging;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.paging")
+public class PagingProperties {
+
+    /**
+     * CACHED / APPROXIMATE 모드에서 count 결과를 유지하는 시간, 0 이면 캐시하지 않음
+     */
+    private Duration countCacheTtl = Duration.ofSeconds(30);
+
+    /**
+     * 캐시에 보관할 최대 (query, parameter) 조합 수
+     */
+    private int countCacheMaxSize = 1_000;
+}
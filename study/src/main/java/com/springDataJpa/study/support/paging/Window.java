@@ -0,0 +1,58 @@
+package com.springDataJpa.study.support.paging;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * keyset(seek) 방식의 페이지 결과
+ * offset 대신 마지막 row 의 cursor 를 넘겨 다음 window 를 조회한다.
+ *
+ * @param <T>
+ */
+@Getter
+@ToString(of = {"size", "hasNext", "nextCursor"})
+public class Window<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    private Window(List<T> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * size + 1 건을 조회한 결과를 받아 다음 window 존재 여부를 판단한다.
+     */
+    public static <T> Window<T> of(List<T> rows, int size, Function<T, String> cursorFunction) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = content.isEmpty() ? null : cursorFunction.apply(content.get(content.size() - 1));
+
+        return new Window<>(Collections.unmodifiableList(content), size, hasNext, nextCursor);
+    }
+
+    /**
+     * 다음 window 여부를 따로 판단한 경우, content 는 size 건 이하
+     */
+    public static <T> Window<T> of(List<T> content, int size, boolean hasNext, Function<T, String> cursorFunction) {
+        String nextCursor = content.isEmpty() ? null : cursorFunction.apply(content.get(content.size() - 1));
+
+        return new Window<>(Collections.unmodifiableList(content), size, hasNext, nextCursor);
+    }
+
+    public <R> Window<R> map(Function<? super T, ? extends R> converter) {
+        List<R> converted = new ArrayList<>(content.size());
+        content.forEach(t -> converted.add(converter.apply(t)));
+        return new Window<>(Collections.unmodifiableList(converted), size, hasNext, nextCursor);
+    }
+}
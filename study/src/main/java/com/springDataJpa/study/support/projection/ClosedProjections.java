@@ -0,0 +1,173 @@
+package com.springDataJpa.study.support.projection;
+
+import com.springDataJpa.study.support.spec.SpecProjection;
+import com.springDataJpa.study.support.spec.Specs;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Path;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * closed 프로젝션 인터페이스에서 필요한 컬럼만 select 하는 SpecProjection 을 만든다.
+ *
+ * 프로퍼티는 파생 쿼리와 같은 규칙(PropertyPath)으로 엔티티 경로에 연결된다. (teamName => team.name)
+ * 중첩 프로젝션(getTeam() : TeamInfo)은 연관 엔티티 전체 대신 TeamInfo 의 컬럼만 left join 으로 가져오고,
+ * 연관 엔티티의 id 만 필요하면 join 없이 fk 컬럼을 읽는다.
+ * 연관 엔티티가 null 이면(fk 가 null) 중첩 프로젝션도 null
+ *
+ * 결과는 CompactProjectionGenerator 가 만든 클래스의 인스턴스다.
+ */
+public final class ClosedProjections {
+
+    private static final ConversionService CONVERSION_SERVICE = DefaultConversionService.getSharedInstance();
+    private static final Map<List<Class<?>>, SpecProjection<?, ?>> PROJECTIONS = new ConcurrentHashMap<>();
+
+    private ClosedProjections() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T, P> SpecProjection<T, P> of(Class<T> domainType, Class<P> projectionType) {
+        return (SpecProjection<T, P>) PROJECTIONS.computeIfAbsent(List.of(domainType, projectionType),
+                key -> build(domainType, projectionType));
+    }
+
+    private static <T, P> SpecProjection<T, P> build(Class<T> domainType, Class<P> projectionType) {
+        SpecProjection.Builder<T> builder = SpecProjection.of(domainType);
+        Node node = node(builder, new HashSet<>(), domainType, domainType, projectionType, "", null);
+        return builder.map(row -> projectionType.cast(node.create(row)));
+    }
+
+    /**
+     * @param prefix   상위 연관 엔티티 경로 (team.)
+     * @param nullWhen 이 alias 의 값이 null 이면 프로젝션도 null (연관 엔티티의 fk)
+     */
+    private static <T> Node node(SpecProjection.Builder<T> builder, Set<String> aliases, Class<T> domainType,
+                                 Class<?> ownerType, Class<?> projectionType, String prefix, String nullWhen) {
+        CompactProjectionGenerator.CompactType compactType = CompactProjectionGenerator.generate(projectionType);
+        List<Function<SpecProjection.Row, Object>> values = new ArrayList<>();
+
+        for (Method getter : compactType.getGetters()) {
+            PropertyPath path = PropertyPath.from(CompactProjectionGenerator.property(getter), ownerType);
+            Class<?> leafType = path.getLeafProperty().getType();
+            String dotPath = prefix + path.toDotPath();
+
+            if (isNestedProjection(getter.getReturnType()) && isEntity(leafType)) {
+                String idAlias = column(builder, aliases, domainType, dotPath + "." + idAttribute(leafType));
+                Node nested = node(builder, aliases, domainType, leafType, getter.getReturnType(), dotPath + ".", idAlias);
+                values.add(nested::create);
+            } else {
+                String alias = column(builder, aliases, domainType, dotPath);
+                Class<?> type = ClassUtils.resolvePrimitiveIfNecessary(getter.getReturnType());
+                values.add(row -> convert(row.get(alias), type));
+            }
+        }
+
+        return new Node(compactType, values, nullWhen);
+    }
+
+    /**
+     * 마지막 속성 바로 앞까지의 연관 엔티티는 left join, 마지막이 연관 엔티티의 id 면 join 없이 fk 를 읽는다.
+     */
+    private static <T> String column(SpecProjection.Builder<T> builder, Set<String> aliases, Class<T> domainType,
+                                     String alias) {
+        if (!aliases.add(alias)) {
+            return alias;
+        }
+
+        List<String> segments = List.of(alias.split("\\."));
+        List<String> joins = new ArrayList<>(segments.subList(0, segments.size() - 1));
+        List<String> attributes = new ArrayList<>(segments.subList(segments.size() - 1, segments.size()));
+        if (!joins.isEmpty()) {
+            Class<?> association = PropertyPath.from(String.join(".", joins), domainType).getLeafProperty().getType();
+            if (attributes.get(0).equals(idAttribute(association))) {
+                attributes.add(0, joins.remove(joins.size() - 1));
+            }
+        }
+
+        builder.column(alias, (root, criteriaBuilder) -> {
+            From<?, ?> from = root;
+            for (String join : joins) {
+                from = Specs.leftJoin(from, join);
+            }
+            Path<?> selection = from.get(attributes.get(0));
+            for (String attribute : attributes.subList(1, attributes.size())) {
+                selection = selection.get(attribute);
+            }
+            return selection;
+        });
+        return alias;
+    }
+
+    private static Object convert(Object value, Class<?> type) {
+        if (value == null || type.isInstance(value)) {
+            return value;
+        }
+        return CONVERSION_SERVICE.convert(value, type);
+    }
+
+    private static boolean isNestedProjection(Class<?> type) {
+        return type.isInterface() && !type.getName().startsWith("java.");
+    }
+
+    private static boolean isEntity(Class<?> type) {
+        return type.isAnnotationPresent(Entity.class);
+    }
+
+    private static String idAttribute(Class<?> entityType) {
+        for (Class<?> type = entityType; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Id.class)) {
+                    return field.getName();
+                }
+            }
+        }
+        for (Method method : ReflectionUtils.getAllDeclaredMethods(entityType)) {
+            if (method.isAnnotationPresent(Id.class)) {
+                return CompactProjectionGenerator.property(method);
+            }
+        }
+        throw new IllegalArgumentException("no @Id attribute: " + entityType.getName());
+    }
+
+    private static final class Node {
+
+        private final CompactProjectionGenerator.CompactType type;
+        private final List<Function<SpecProjection.Row, Object>> values;
+        private final String nullWhen;
+
+        private Node(CompactProjectionGenerator.CompactType type, List<Function<SpecProjection.Row, Object>> values,
+                     String nullWhen) {
+            this.type = type;
+            this.values = values;
+            this.nullWhen = nullWhen;
+        }
+
+        private Object create(SpecProjection.Row row) {
+            if (nullWhen != null && Objects.isNull(row.get(nullWhen))) {
+                return null;
+            }
+
+            Object[] args = new Object[values.size()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = values.get(i).apply(row);
+            }
+            return type.newInstance(args);
+        }
+    }
+}
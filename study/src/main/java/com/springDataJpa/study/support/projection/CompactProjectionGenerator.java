@@ -0,0 +1,163 @@
+package com.springDataJpa.study.support.projection;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.modifier.FieldManifestation;
+import net.bytebuddy.description.modifier.Visibility;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
+import net.bytebuddy.implementation.EqualsMethod;
+import net.bytebuddy.implementation.FieldAccessor;
+import net.bytebuddy.implementation.HashCodeMethod;
+import net.bytebuddy.implementation.Implementation;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.ToStringMethod;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.beans.Introspector;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.bytebuddy.matcher.ElementMatchers.is;
+import static net.bytebuddy.matcher.ElementMatchers.isEquals;
+import static net.bytebuddy.matcher.ElementMatchers.isHashCode;
+import static net.bytebuddy.matcher.ElementMatchers.isToString;
+
+/**
+ * closed 프로젝션 인터페이스를 구현하는 클래스를 만든다.
+ * getter 마다 final 필드 하나, 생성자는 getter 이름 순서의 전체 필드를 받는다. (equals / hashCode / toString 포함)
+ *
+ * spring data 의 프로젝션 프록시(jdk proxy + Map 조회)와 달리 getter 호출이 필드 읽기 하나다.
+ */
+final class CompactProjectionGenerator {
+
+    private static final Map<Class<?>, CompactType> TYPES = new ConcurrentHashMap<>();
+
+    private CompactProjectionGenerator() {
+    }
+
+    static CompactType generate(Class<?> projectionType) {
+        return TYPES.computeIfAbsent(projectionType, CompactProjectionGenerator::make);
+    }
+
+    private static CompactType make(Class<?> projectionType) {
+        if (!projectionType.isInterface()) {
+            throw new IllegalArgumentException(projectionType.getName() + " is not an interface");
+        }
+
+        List<Method> getters = getters(projectionType);
+        DynamicType.Builder<Object> builder = new ByteBuddy()
+                .subclass(Object.class, ConstructorStrategy.Default.NO_CONSTRUCTORS)
+                .name(projectionType.getName() + "$Compact")
+                .implement(projectionType);
+
+        List<String> properties = new ArrayList<>(getters.size());
+        Class<?>[] parameterTypes = new Class<?>[getters.size()];
+        Implementation.Composable constructor = MethodCall.invoke(objectConstructor());
+        for (int i = 0; i < getters.size(); i++) {
+            Method getter = getters.get(i);
+            String property = property(getter);
+            properties.add(property);
+            parameterTypes[i] = getter.getReturnType();
+
+            builder = builder.defineField(property, getter.getGenericReturnType(), Visibility.PRIVATE, FieldManifestation.FINAL)
+                    .method(is(getter)).intercept(FieldAccessor.ofField(property));
+            constructor = constructor.andThen(FieldAccessor.ofField(property).setsArgumentAt(i));
+        }
+
+        Class<?> type = builder.defineConstructor(Visibility.PUBLIC)
+                .withParameters(parameterTypes)
+                .intercept(constructor)
+                .method(isEquals()).intercept(EqualsMethod.isolated())
+                .method(isHashCode()).intercept(HashCodeMethod.usingDefaultOffset())
+                .method(isToString()).intercept(ToStringMethod.prefixedBySimpleClassName())
+                .make()
+                .load(projectionType.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                .getLoaded();
+
+        try {
+            return new CompactType(type.getConstructor(parameterTypes), getters, properties);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 인자 없는 추상 getter, default 메서드는 생성된 클래스가 그대로 상속한다.
+     */
+    private static List<Method> getters(Class<?> projectionType) {
+        List<Method> getters = new ArrayList<>();
+        for (Method method : projectionType.getMethods()) {
+            if (method.isDefault() || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            if (method.getParameterCount() != 0 || method.getReturnType() == void.class || property(method) == null) {
+                throw new IllegalArgumentException("not a closed projection method: " + method);
+            }
+            if (method.isAnnotationPresent(Value.class)) {
+                throw new IllegalArgumentException("open projection is not supported: " + method);
+            }
+            getters.add(method);
+        }
+        getters.sort(Comparator.comparing(CompactProjectionGenerator::property));
+        return getters;
+    }
+
+    static String property(Method getter) {
+        String name = getter.getName();
+        if (name.startsWith("get") && name.length() > 3) {
+            return Introspector.decapitalize(name.substring(3));
+        }
+        if (name.startsWith("is") && name.length() > 2
+                && (getter.getReturnType() == boolean.class || getter.getReturnType() == Boolean.class)) {
+            return Introspector.decapitalize(name.substring(2));
+        }
+        return null;
+    }
+
+    private static Constructor<Object> objectConstructor() {
+        try {
+            return Object.class.getConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static final class CompactType {
+
+        private final Constructor<?> constructor;
+        private final List<Method> getters;
+        private final List<String> properties;
+
+        private CompactType(Constructor<?> constructor, List<Method> getters, List<String> properties) {
+            this.constructor = constructor;
+            this.getters = Collections.unmodifiableList(getters);
+            this.properties = Collections.unmodifiableList(properties);
+        }
+
+        List<Method> getGetters() {
+            return getters;
+        }
+
+        List<String> getProperties() {
+            return properties;
+        }
+
+        Object newInstance(Object[] args) {
+            try {
+                return constructor.newInstance(args);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("cannot create " + constructor.getDeclaringClass().getName()
+                        + " with " + Arrays.toString(args), e);
+            }
+        }
+    }
+}
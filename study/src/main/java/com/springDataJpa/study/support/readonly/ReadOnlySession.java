@@ -0,0 +1,22 @@
+package com.springDataJpa.study.support.readonly;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 메서드(클래스에 붙이면 모든 public 메서드) 실행 동안 hibernate 세션을 read-only + FlushMode.MANUAL 로 바꾼다.
+ * 이때 조회한 엔티티는 dirty checking 용 스냅샷을 만들지 않고 변경해도 update 되지 않는다.
+ *
+ * 트랜잭션 밖에서 호출되면 open-in-view 세션에 적용하고, 세션이 없으면 읽기 전용 트랜잭션을 시작한다.
+ * 이미 트랜잭션 안이면 아무것도 하지 않는다. (@Transactional(readOnly = true) 는 spring 이 같은 설정을 해준다)
+ * 쓰기 @Transactional 메서드에는 붙이지 않는다.
+ * 안에서 쓰기 트랜잭션을 시작하면 그 트랜잭션 동안은 세션이 다시 쓰기 가능해진다. (ReadOnlySessionJpaDialect)
+ */
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnlySession {
+}
@@ -0,0 +1,29 @@
+package com.springDataJpa.study.support.readonly;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 트랜잭션 interceptor 보다 먼저 실행되어 트랜잭션 밖인지 판단한다.
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 100)
+public class ReadOnlySessionAspect {
+
+    private final ReadOnlySessionSupport readOnlySessionSupport;
+
+    public ReadOnlySessionAspect(ReadOnlySessionSupport readOnlySessionSupport) {
+        this.readOnlySessionSupport = readOnlySessionSupport;
+    }
+
+    @Around("@annotation(com.springDataJpa.study.support.readonly.ReadOnlySession)" +
+            " || (@within(com.springDataJpa.study.support.readonly.ReadOnlySession) && execution(public * *(..)))")
+    public Object readOnly(ProceedingJoinPoint joinPoint) throws Throwable {
+        return readOnlySessionSupport.execute(joinPoint::proceed);
+    }
+}
@@ -0,0 +1,47 @@
+package com.springDataJpa.study.support.readonly;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class ReadOnlySessionConfig {
+
+    /**
+     * open-in-view interceptor 는 order 0 으로 등록된다.
+     */
+    private static final int AFTER_OPEN_IN_VIEW = 1;
+
+    /**
+     * 쓰기 트랜잭션이 read-only 세션을 물려받지 않도록 jpa dialect 를 바꾼다. (ReadOnlySessionJpaDialect)
+     */
+    @Bean
+    public static BeanPostProcessor readOnlySessionJpaDialectRegistrar() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof LocalContainerEntityManagerFactoryBean) {
+                    ((LocalContainerEntityManagerFactoryBean) bean).setJpaDialect(new ReadOnlySessionJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer readOnlySessionRequestConfigurer(ReadOnlySessionSupport readOnlySessionSupport,
+                                                             ReadOnlySessionProperties properties) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                if (properties.isGetRequests()) {
+                    registry.addInterceptor(new ReadOnlySessionRequestInterceptor(readOnlySessionSupport))
+                            .order(AFTER_OPEN_IN_VIEW);
+                }
+            }
+        };
+    }
+}
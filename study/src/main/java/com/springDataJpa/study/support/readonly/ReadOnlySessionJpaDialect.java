@@ -0,0 +1,65 @@
+package com.springDataJpa.study.support.readonly;
+
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * read-only 로 바뀐 open-in-view 세션에서 쓰기 트랜잭션이 시작되면 트랜잭션 동안 세션을 다시 쓰기 가능으로 바꾼다.
+ * (HibernateJpaDialect 는 미리 묶인 세션의 defaultReadOnly 를 건드리지 않으므로
+ * 그대로 두면 트랜잭션 안에서 변경한 엔티티가 update 되지 않는다)
+ *
+ * 이미 read-only 로 읽은 엔티티도 쓰기 가능으로 바꾸고(현재 상태로 스냅샷 생성),
+ * 트랜잭션이 끝나면 세션의 defaultReadOnly 를 시작 전 값으로 되돌린다. flush 모드는 HibernateJpaDialect 가 되돌린다.
+ */
+public class ReadOnlySessionJpaDialect extends HibernateJpaDialect {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException {
+        SessionImplementor session = getSession(entityManager);
+        boolean defaultReadOnly = session.isDefaultReadOnly();
+        if (defaultReadOnly && !definition.isReadOnly()) {
+            session.setDefaultReadOnly(false);
+            for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContext().reentrantSafeEntityEntries()) {
+                if (entry.getValue().isReadOnly()) {
+                    session.setReadOnly(entry.getKey(), false);
+                }
+            }
+        }
+        return new TransactionData(session, defaultReadOnly, super.beginTransaction(entityManager, definition));
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (!(transactionData instanceof TransactionData)) {
+            super.cleanupTransaction(transactionData);
+            return;
+        }
+
+        TransactionData data = (TransactionData) transactionData;
+        super.cleanupTransaction(data.delegate);
+        if (data.session.isOpen()) {
+            data.session.setDefaultReadOnly(data.defaultReadOnly);
+        }
+    }
+
+    private static class TransactionData {
+        private final SessionImplementor session;
+        private final boolean defaultReadOnly;
+        private final Object delegate;
+
+        private TransactionData(SessionImplementor session, boolean defaultReadOnly, Object delegate) {
+            this.session = session;
+            this.defaultReadOnly = defaultReadOnly;
+            this.delegate = delegate;
+        }
+    }
+}
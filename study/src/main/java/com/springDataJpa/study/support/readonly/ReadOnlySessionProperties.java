@@ -0,0 +1,17 @@
+package com.springDataJpa.study.support.readonly;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.read-only")
+public class ReadOnlySessionProperties {
+
+    /**
+     * GET / HEAD 요청의 open-in-view 세션을 read-only 로 사용
+     * 같은 요청 안에서 조회한 엔티티를 수정해야 하는 GET 핸들러가 있으면 끈다.
+     */
+    private boolean getRequests = true;
+}
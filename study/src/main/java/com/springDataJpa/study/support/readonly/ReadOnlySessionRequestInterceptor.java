@@ -0,0 +1,42 @@
+package com.springDataJpa.study.support.readonly;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * GET / HEAD 요청 동안 open-in-view 세션을 read-only 로 바꾼다.
+ * 뷰 렌더링 / json 직렬화 중 지연 로딩되는 엔티티도 스냅샷을 만들지 않는다.
+ * open-in-view interceptor 가 세션을 묶은 뒤에 실행되도록 등록 순서를 뒤로 둔다. (ReadOnlySessionConfig)
+ */
+public class ReadOnlySessionRequestInterceptor implements HandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = ReadOnlySessionRequestInterceptor.class.getName() + ".SCOPE";
+
+    private final ReadOnlySessionSupport readOnlySessionSupport;
+
+    public ReadOnlySessionRequestInterceptor(ReadOnlySessionSupport readOnlySessionSupport) {
+        this.readOnlySessionSupport = readOnlySessionSupport;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if ("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())) {
+            ReadOnlySessionSupport.Scope scope = readOnlySessionSupport.open();
+            if (scope != null) {
+                request.setAttribute(SCOPE_ATTRIBUTE, scope);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReadOnlySessionSupport.Scope scope = (ReadOnlySessionSupport.Scope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope != null) {
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+            scope.close();
+        }
+    }
+}
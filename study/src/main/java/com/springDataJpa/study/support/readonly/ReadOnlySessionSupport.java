@@ -0,0 +1,108 @@
+package com.springDataJpa.study.support.readonly;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * open-in-view 로 묶인 세션을 잠시 read-only 로 바꾸거나, 세션이 없으면 읽기 전용 트랜잭션으로 실행한다.
+ */
+@Component
+public class ReadOnlySessionSupport {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ReadOnlySessionSupport(EntityManagerFactory entityManagerFactory, PlatformTransactionManager transactionManager) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public Object execute(Invocation invocation) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+
+        Scope scope = open();
+        if (scope == null) {
+            return inReadOnlyTransaction(invocation);
+        }
+        try {
+            return invocation.proceed();
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * 트랜잭션 밖에서 현재 스레드에 묶인(open-in-view) 세션을 read-only 로 바꾼다.
+     *
+     * @return 묶인 세션이 없거나 트랜잭션 안이면 null
+     */
+    public Scope open() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+        if (holder == null) {
+            return null;
+        }
+        return new Scope(holder.getEntityManager().unwrap(Session.class));
+    }
+
+    private Object inReadOnlyTransaction(Invocation invocation) throws Throwable {
+        Throwable[] error = new Throwable[1];
+        Object result = readOnlyTransaction.execute(status -> {
+            try {
+                return invocation.proceed();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                //checked 예외는 롤백 없이 그대로 던진다. (@Transactional 기본 규칙)
+                error[0] = e;
+                return null;
+            }
+        });
+        if (error[0] != null) {
+            throw error[0];
+        }
+        return result;
+    }
+
+    /**
+     * close 하면 이전 설정으로 되돌린다. 그동안 조회한 엔티티는 계속 read-only 다.
+     */
+    public static class Scope implements AutoCloseable {
+        private final Session session;
+        private final boolean defaultReadOnly;
+        private final FlushMode flushMode;
+
+        private Scope(Session session) {
+            this.session = session;
+            this.defaultReadOnly = session.isDefaultReadOnly();
+            this.flushMode = session.getHibernateFlushMode();
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+        }
+
+        @Override
+        public void close() {
+            if (session.isOpen()) {
+                session.setDefaultReadOnly(defaultReadOnly);
+                session.setHibernateFlushMode(flushMode);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Invocation {
+        Object proceed() throws Throwable;
+    }
+}
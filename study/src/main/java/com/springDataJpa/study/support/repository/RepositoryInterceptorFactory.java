@@ -0,0 +1,14 @@
+package com.springDataJpa.study.support.repository;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.data.repository.core.RepositoryInformation;
+
+/**
+ * spring data 리포지토리 프록시에 끼워 넣을 interceptor 를 만든다.
+ * 빈으로 등록하면 모든 리포지토리에 적용되며 트랜잭션 interceptor 안쪽에서 실행된다.
+ * 적용하지 않을 리포지토리면 null 을 돌려준다.
+ */
+public interface RepositoryInterceptorFactory {
+
+    MethodInterceptor create(RepositoryInformation repositoryInformation);
+}
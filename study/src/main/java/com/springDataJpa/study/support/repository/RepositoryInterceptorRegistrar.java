@@ -0,0 +1,33 @@
+package com.springDataJpa.study.support.repository;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * 리포지토리 팩토리 빈마다 RepositoryInterceptorFactory 빈들이 만든 interceptor 를 프록시에 추가한다.
+ */
+public class RepositoryInterceptorRegistrar implements BeanPostProcessor {
+
+    private final ObjectProvider<RepositoryInterceptorFactory> factories;
+
+    public RepositoryInterceptorRegistrar(ObjectProvider<RepositoryInterceptorFactory> factories) {
+        this.factories = factories;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(repositoryFactory ->
+                    repositoryFactory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                            factories.orderedStream().forEach(factory -> {
+                                MethodInterceptor interceptor = factory.create(repositoryInformation);
+                                if (interceptor != null) {
+                                    proxyFactory.addAdvice(interceptor);
+                                }
+                            })));
+        }
+        return bean;
+    }
+}
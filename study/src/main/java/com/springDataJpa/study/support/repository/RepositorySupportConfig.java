@@ -0,0 +1,14 @@
+package com.springDataJpa.study.support.repository;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RepositorySupportConfig {
+
+    @Bean
+    public static RepositoryInterceptorRegistrar repositoryInterceptorRegistrar(ObjectProvider<RepositoryInterceptorFactory> factories) {
+        return new RepositoryInterceptorRegistrar(factories);
+    }
+}
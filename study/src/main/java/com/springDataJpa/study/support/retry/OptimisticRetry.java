@@ -0,0 +1,25 @@
+package com.springDataJpa.study.support.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 낙관적 잠금 충돌(OptimisticLockException) 이 나면 트랜잭션을 처음부터 다시 실행한다.
+ * 재시도 사이에는 jitter 를 섞은 지수 backoff 만큼 기다린다.
+ *
+ * 트랜잭션 interceptor 바깥에서 동작하므로 @Transactional 과 같이 붙이면 시도마다 새 트랜잭션이 된다.
+ * 이미 트랜잭션 안에서 호출되면(바깥 트랜잭션이 rollback-only 가 되므로) 재시도하지 않는다.
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OptimisticRetry {
+
+    /**
+     * 첫 실행을 포함한 최대 실행 횟수, 0 이면 study.retry.max-attempts
+     */
+    int maxAttempts() default 0;
+}
@@ -0,0 +1,40 @@
+package com.springDataJpa.study.support.retry;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * @OptimisticRetry 메서드를 OptimisticRetryTemplate 로 감싼다.
+ * 트랜잭션 interceptor(LOWEST_PRECEDENCE) 보다 먼저 실행되어야 시도마다 새 트랜잭션이 된다.
+ */
+@Aspect
+@Component
+@Order(OptimisticRetryAspect.ORDER)
+public class OptimisticRetryAspect {
+
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+
+    private final OptimisticRetryTemplate retryTemplate;
+
+    public OptimisticRetryAspect(OptimisticRetryTemplate retryTemplate) {
+        this.retryTemplate = retryTemplate;
+    }
+
+    @Around("@annotation(retry)")
+    public Object retryMethod(ProceedingJoinPoint joinPoint, OptimisticRetry retry) throws Throwable {
+        return retryTemplate.retry(name(joinPoint), retry.maxAttempts(), joinPoint::proceed);
+    }
+
+    @Around("@within(retry) && !@annotation(com.springDataJpa.study.support.retry.OptimisticRetry)")
+    public Object retryType(ProceedingJoinPoint joinPoint, OptimisticRetry retry) throws Throwable {
+        return retryTemplate.retry(name(joinPoint), retry.maxAttempts(), joinPoint::proceed);
+    }
+
+    private static String name(ProceedingJoinPoint joinPoint) {
+        return joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+    }
+}
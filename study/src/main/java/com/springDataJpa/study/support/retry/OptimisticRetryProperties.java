@@ -0,0 +1,25 @@
+package com.springDataJpa.study.support.retry;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.retry")
+public class OptimisticRetryProperties {
+
+    /**
+     * 첫 실행을 포함한 최대 실행 횟수
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * 첫 재시도 전 대기 시간, 재시도마다 두 배 (절반은 random jitter)
+     */
+    private Duration initialBackoff = Duration.ofMillis(20);
+
+    private Duration maxBackoff = Duration.ofMillis(500);
+}
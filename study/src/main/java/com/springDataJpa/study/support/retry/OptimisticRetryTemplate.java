@@ -0,0 +1,116 @@
+package com.springDataJpa.study.support.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.StaleStateException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 낙관적 잠금 충돌 시 재시도
+ * 충돌 횟수는 optimistic.lock.conflicts, 재시도 횟수는 optimistic.lock.retries (name 태그) 로 기록된다.
+ *
+ * <pre>
+ * retryTemplate.execute("member.addAge", status -&gt; {
+ *     Member member = memberRepository.findById(id).orElseThrow();
+ *     member.setAge(member.getAge() + 1);
+ *     return member;
+ * });
+ * </pre>
+ */
+@Slf4j
+@Component
+public class OptimisticRetryTemplate {
+
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticRetryProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public OptimisticRetryTemplate(PlatformTransactionManager transactionManager,
+                                   OptimisticRetryProperties properties, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 시도마다 새 트랜잭션에서 action 을 실행한다.
+     */
+    public <T> T execute(String name, TransactionCallback<T> action) {
+        try {
+            return retry(name, 0, () -> transactionTemplate.execute(action));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param maxAttempts 0 이면 study.retry.max-attempts
+     */
+    public <T> T retry(String name, int maxAttempts, Attempt<T> attempt) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return attempt.run();
+        }
+
+        int attempts = maxAttempts > 0 ? maxAttempts : properties.getMaxAttempts();
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.run();
+            } catch (Throwable e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                meterRegistry.counter("optimistic.lock.conflicts", "name", name).increment();
+                if (i >= attempts) {
+                    log.warn("optimistic lock conflict, giving up after {} attempts. name = {}", i, name);
+                    throw e;
+                }
+
+                backoff(i, e);
+                meterRegistry.counter("optimistic.lock.retries", "name", name).increment();
+                log.debug("optimistic lock conflict, retrying. name = {}, attempt = {}", name, i + 1);
+            }
+        }
+    }
+
+    /**
+     * min(maxBackoff, initialBackoff * 2^(attempt - 1)) 의 절반 + [0, 절반) random
+     * 동시에 충돌한 트랜잭션들이 같은 시점에 다시 부딪히지 않도록 흩어 놓는다.
+     */
+    private void backoff(int attempt, Throwable conflict) throws Throwable {
+        long base = Math.min(properties.getMaxBackoff().toMillis(),
+                properties.getInitialBackoff().toMillis() << Math.min(attempt - 1, 20));
+        long half = base / 2;
+        long sleep = half + (half > 0 ? ThreadLocalRandom.current().nextLong(half) : 0);
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    private static boolean isConflict(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof OptimisticLockingFailureException || t instanceof OptimisticLockException
+                    || t instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    public interface Attempt<T> {
+        T run() throws Throwable;
+    }
+}
@@ -0,0 +1,11 @@
+package com.springDataJpa.study.support.spec;
+
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Specs.allOf 가 where 절 순서를 정할 때 사용하는 선택도를 가진 Specification
+ */
+public interface SelectiveSpecification<T> extends Specification<T> {
+
+    Selectivity selectivity();
+}
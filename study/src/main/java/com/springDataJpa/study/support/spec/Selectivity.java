@@ -0,0 +1,27 @@
+package com.springDataJpa.study.support.spec;
+
+/**
+ * 조건이 결과를 얼마나 줄이는지 대략적인 순서, 앞에 있을수록 먼저 평가되도록 where 절 앞쪽에 둔다.
+ */
+public enum Selectivity {
+
+    /**
+     * pk / unique 컬럼 동등 비교
+     */
+    UNIQUE,
+
+    /**
+     * 일반 컬럼 동등 비교, in
+     */
+    EQUAL,
+
+    /**
+     * 범위 비교 (between, <, >=)
+     */
+    RANGE,
+
+    /**
+     * like, 조인한 테이블 조건 등
+     */
+    LOW
+}
@@ -0,0 +1,235 @@
+package com.springDataJpa.study.support.spec;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Specification 조회에서 엔티티 대신 필요한 컬럼만 tuple 로 select 하고 R 로 변환한다.
+ *
+ * 컬럼은 where 절을 만든 뒤에 계산되므로 spec 이 만든 join 을 Specs.leftJoin 으로 재사용할 수 있다.
+ * dto      => 컬럼 순서대로 생성자 호출 (같은 개수의 생성자가 여럿이면 파라미터 타입을 지정한다)
+ * as       => 인터페이스 프로젝션, 컬럼 alias 가 프로퍼티 이름
+ *
+ * hibernate 는 root.get 의 Path 를 재사용하므로 selection 에 alias 를 붙이지 않고 위치로 읽는다.
+ * (같은 Path 를 두 번 select 하면 한 번만 select 한다)
+ *
+ * @param <T> 도메인 타입
+ * @param <R> 결과 타입
+ */
+public final class SpecProjection<T, R> {
+
+    private static final ProjectionFactory PROJECTION_FACTORY = new SpelAwareProxyProjectionFactory();
+
+    private final Map<String, Column<T>> columns;
+    private final Function<Row, R> mapper;
+
+    private SpecProjection(Map<String, Column<T>> columns, Function<Row, R> mapper) {
+        this.columns = columns;
+        this.mapper = mapper;
+    }
+
+    public static <T> Builder<T> of(Class<T> domainType) {
+        return new Builder<>();
+    }
+
+    /**
+     * 결과 변환에는 쓰이지 않는 컬럼을 추가한다. (keyset cursor 등, andThen 에서 읽는다)
+     */
+    public SpecProjection<T, R> with(String alias, Column<T> column) {
+        Map<String, Column<T>> added = new LinkedHashMap<>(columns);
+        if (added.put(alias, column) != null) {
+            throw new IllegalArgumentException("duplicate projection column: " + alias);
+        }
+        return new SpecProjection<>(Collections.unmodifiableMap(added), mapper);
+    }
+
+    public <V> SpecProjection<T, V> andThen(BiFunction<? super R, Row, V> next) {
+        return new SpecProjection<>(columns, row -> next.apply(mapper.apply(row), row));
+    }
+
+    public Selected<R> select(Root<T> root, CriteriaBuilder criteriaBuilder) {
+        List<Selection<?>> selections = new ArrayList<>(columns.size());
+        Map<String, Integer> indexes = new HashMap<>();
+        columns.forEach((alias, column) -> {
+            Selection<?> selection = column.select(root, criteriaBuilder);
+            int index = indexOf(selections, selection);
+            if (index < 0) {
+                index = selections.size();
+                selections.add(selection);
+            }
+            indexes.put(alias, index);
+        });
+        return new Selected<>(selections, indexes, mapper);
+    }
+
+    private static int indexOf(List<Selection<?>> selections, Selection<?> selection) {
+        for (int i = 0; i < selections.size(); i++) {
+            if (selections.get(i) == selection) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @FunctionalInterface
+    public interface Column<T> {
+        Selection<?> select(Root<T> root, CriteriaBuilder criteriaBuilder);
+    }
+
+    /**
+     * tuple 한 건을 alias 로 읽는다.
+     */
+    public interface Row {
+        Object get(String alias);
+
+        default <V> V get(String alias, Class<V> type) {
+            return type.cast(get(alias));
+        }
+    }
+
+    /**
+     * 쿼리 하나에 대해 만들어진 selection 목록과 alias => tuple 위치
+     */
+    public static final class Selected<R> {
+
+        private final List<Selection<?>> selections;
+        private final Map<String, Integer> indexes;
+        private final Function<Row, R> mapper;
+
+        private Selected(List<Selection<?>> selections, Map<String, Integer> indexes, Function<Row, R> mapper) {
+            this.selections = Collections.unmodifiableList(selections);
+            this.indexes = indexes;
+            this.mapper = mapper;
+        }
+
+        public List<Selection<?>> getSelections() {
+            return selections;
+        }
+
+        public R map(Tuple tuple) {
+            return mapper.apply(alias -> {
+                Integer index = indexes.get(alias);
+                if (index == null) {
+                    throw new IllegalArgumentException("unknown projection column: " + alias);
+                }
+                return tuple.get(index);
+            });
+        }
+
+        public List<R> map(List<Tuple> tuples) {
+            List<R> content = new ArrayList<>(tuples.size());
+            for (Tuple tuple : tuples) {
+                content.add(map(tuple));
+            }
+            return content;
+        }
+    }
+
+    public static final class Builder<T> {
+
+        private final Map<String, Column<T>> columns = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder<T> column(String alias, Column<T> column) {
+            if (columns.put(alias, column) != null) {
+                throw new IllegalArgumentException("duplicate projection column: " + alias);
+            }
+            return this;
+        }
+
+        /**
+         * 같은 이름의 속성을 그대로 select
+         */
+        public Builder<T> attribute(String name) {
+            return column(name, (root, criteriaBuilder) -> root.get(name));
+        }
+
+        public <R> SpecProjection<T, R> map(Function<Row, R> mapper) {
+            return new SpecProjection<>(Collections.unmodifiableMap(new LinkedHashMap<>(columns)), mapper);
+        }
+
+        /**
+         * 컬럼 수와 파라미터 수가 같은 생성자가 하나일 때만 쓸 수 있다.
+         */
+        public <R> SpecProjection<T, R> dto(Class<R> dtoType) {
+            return dto(constructor(dtoType, columns.size()));
+        }
+
+        /**
+         * parameterTypes 로 생성자를 지정한다. (컬럼 순서와 같은 순서)
+         */
+        public <R> SpecProjection<T, R> dto(Class<R> dtoType, Class<?>... parameterTypes) {
+            if (parameterTypes.length != columns.size()) {
+                throw new IllegalArgumentException(
+                        "expected " + columns.size() + " parameter types but got " + parameterTypes.length);
+            }
+            try {
+                return dto(dtoType.getDeclaredConstructor(parameterTypes));
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException(
+                        dtoType.getName() + " has no constructor " + Arrays.toString(parameterTypes), e);
+            }
+        }
+
+        private <R> SpecProjection<T, R> dto(Constructor<R> constructor) {
+            List<String> aliases = new ArrayList<>(columns.keySet());
+            return map(row -> {
+                Object[] args = new Object[aliases.size()];
+                for (int i = 0; i < args.length; i++) {
+                    args[i] = row.get(aliases.get(i));
+                }
+                return BeanUtils.instantiateClass(constructor, args);
+            });
+        }
+
+        public <R> SpecProjection<T, R> as(Class<R> projectionType) {
+            if (!projectionType.isInterface()) {
+                throw new IllegalArgumentException(projectionType.getName() + " is not an interface");
+            }
+
+            List<String> aliases = new ArrayList<>(columns.keySet());
+            return map(row -> {
+                Map<String, Object> values = new HashMap<>();
+                for (String alias : aliases) {
+                    values.put(alias, row.get(alias));
+                }
+                return PROJECTION_FACTORY.createProjection(projectionType, values);
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <R> Constructor<R> constructor(Class<R> dtoType, int parameterCount) {
+            List<Constructor<?>> candidates = Arrays.stream(dtoType.getDeclaredConstructors())
+                    .filter(c -> c.getParameterCount() == parameterCount)
+                    .collect(Collectors.toList());
+            if (candidates.isEmpty()) {
+                throw new IllegalArgumentException(
+                        dtoType.getName() + " has no constructor with " + parameterCount + " parameters");
+            }
+            if (candidates.size() > 1) {
+                throw new IllegalArgumentException(dtoType.getName() + " has " + candidates.size()
+                        + " constructors with " + parameterCount + " parameters, use dto(type, parameterTypes...)");
+            }
+            return (Constructor<R>) candidates.get(0);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.springDataJpa.study.support.spec;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JpaSpecificationExecutor 는 엔티티 전체만 돌려주므로 SpecProjection 의 컬럼만 tuple 로 조회한다.
+ *
+ * count 쿼리는 spec 의 where 절만으로 만들어지므로 프로젝션 컬럼 때문에 생긴 join 은 포함되지 않고,
+ * PageableExecutionUtils 로 지연 실행되어 첫 페이지가 다 차지 않거나 마지막 페이지면 실행되지 않는다.
+ *
+ * jpa criteria 에는 nulls first / last 가 없으므로 Sort.Order 의 nullsFirst / nullsLast 는
+ * 앞에 (case when 컬럼 is null ...) 정렬을 추가해서 db 와 상관없이 같은 순서를 만든다.
+ */
+@Component
+public class SpecificationQueryExecutor {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    public <T, R> Page<R> page(Class<T> domainType, Specification<T> spec, SpecProjection<T, R> projection, Pageable pageable) {
+        List<R> content = list(domainType, spec, projection, pageable.getSort(),
+                pageable.isPaged() ? pageable.getOffset() : 0,
+                pageable.isPaged() ? pageable.getPageSize() : 0);
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(domainType, spec));
+    }
+
+    /**
+     * @param maxResults 0 이면 제한 없음
+     */
+    public <T, R> List<R> list(Class<T> domainType, Specification<T> spec, SpecProjection<T, R> projection,
+                               Sort sort, long offset, int maxResults) {
+        CriteriaBuilder criteriaBuilder = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<T> root = query.from(domainType);
+
+        //where 절을 먼저 만들어야 프로젝션 컬럼이 spec 의 join 을 재사용할 수 있다.
+        where(query, spec, root, criteriaBuilder);
+        SpecProjection.Selected<R> selected = projection.select(root, criteriaBuilder);
+        query.multiselect(selected.getSelections());
+
+        if (sort.isSorted()) {
+            query.orderBy(orders(sort, root, criteriaBuilder));
+        }
+
+        TypedQuery<Tuple> typedQuery = em.createQuery(query);
+        if (offset > 0) {
+            typedQuery.setFirstResult((int) offset);
+        }
+        if (maxResults > 0) {
+            typedQuery.setMaxResults(maxResults);
+        }
+        return selected.map(typedQuery.getResultList());
+    }
+
+    public <T> long count(Class<T> domainType, Specification<T> spec) {
+        CriteriaBuilder criteriaBuilder = em.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<T> root = query.from(domainType);
+
+        where(query, spec, root, criteriaBuilder);
+        query.select(query.isDistinct() ? criteriaBuilder.countDistinct(root) : criteriaBuilder.count(root));
+        //count 에는 정렬이 필요 없다.
+        query.orderBy(new ArrayList<>());
+
+        return em.createQuery(query).getSingleResult();
+    }
+
+    private static <T> List<Order> orders(Sort sort, Root<T> root, CriteriaBuilder criteriaBuilder) {
+        List<Order> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            List<Order> converted = QueryUtils.toOrders(Sort.by(order), root, criteriaBuilder);
+            if (order.getNullHandling() != Sort.NullHandling.NATIVE) {
+                boolean nullsFirst = order.getNullHandling() == Sort.NullHandling.NULLS_FIRST;
+                orders.add(criteriaBuilder.asc(criteriaBuilder.<Integer>selectCase()
+                        .when(criteriaBuilder.isNull(converted.get(0).getExpression()), nullsFirst ? 0 : 1)
+                        .otherwise(nullsFirst ? 1 : 0)));
+            }
+            orders.addAll(converted);
+        }
+        return orders;
+    }
+
+    private static <T> void where(CriteriaQuery<?> query, Specification<T> spec, Root<T> root, CriteriaBuilder criteriaBuilder) {
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.springDataJpa.study.support.spec;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Specification 조합 유틸
+ *
+ * join     => 같은 경로 / 같은 join 타입의 join 이 이미 있으면 재사용 (spec 마다 root.join 을 호출하면 join 이 중복된다)
+ * leftJoin => 프로젝션 컬럼용, 같은 경로의 inner / left join 을 재사용
+ * allOf    => null 을 빼고 선택도 순서로 정렬해서 and, 조합 순서와 상관없이 같은 조건이면 같은 sql 이 된다.
+ *
+ * 리터럴은 바인딩 파라미터로 렌더링되므로(hibernate.criteria.literal_handling_mode=bind)
+ * 값만 다른 조회는 같은 jpql 이 되어 hibernate query plan cache 를 재사용한다.
+ */
+public final class Specs {
+
+    private Specs() {
+    }
+
+    public static <T> SelectiveSpecification<T> selective(Selectivity selectivity, Specification<T> specification) {
+        Objects.requireNonNull(specification, "specification");
+        return new SelectiveSpecification<>() {
+            @Override
+            public Selectivity selectivity() {
+                return selectivity;
+            }
+
+            @Override
+            public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+                return specification.toPredicate(root, query, criteriaBuilder);
+            }
+        };
+    }
+
+    /**
+     * SelectiveSpecification 이 아니면 Selectivity.LOW 로 본다.
+     */
+    @SafeVarargs
+    public static <T> Specification<T> allOf(Specification<T>... specifications) {
+        //배열을 다른 메서드로 넘기지 않고 복사한다. (@SafeVarargs 가 보장하는 범위)
+        List<Specification<T>> list = new ArrayList<>(specifications.length);
+        for (Specification<T> specification : specifications) {
+            list.add(specification);
+        }
+        return allOf(list);
+    }
+
+    public static <T> Specification<T> allOf(List<Specification<T>> specifications) {
+        List<Specification<T>> ordered = specifications.stream()
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(Specs::selectivity))
+                .collect(Collectors.toList());
+
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>(ordered.size());
+            for (Specification<T> specification : ordered) {
+                Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+                if (predicate != null) {
+                    predicates.add(predicate);
+                }
+            }
+            if (predicates.isEmpty()) {
+                return null;
+            }
+            return predicates.size() == 1 ? predicates.get(0) : criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * from 에 attribute 로 같은 타입의 join 이 있으면 그 join 을, 없으면 새 join 을 돌려준다.
+     * fetch join 은 재사용하지 않는다.
+     */
+    @SuppressWarnings("unchecked")
+    public static <X, Y> Join<X, Y> join(From<?, X> from, String attribute, JoinType joinType) {
+        for (Join<X, ?> join : from.getJoins()) {
+            if (join.getAttribute().getName().equals(attribute) && join.getJoinType() == joinType) {
+                return (Join<X, Y>) join;
+            }
+        }
+        return from.join(attribute, joinType);
+    }
+
+    /**
+     * 프로젝션 컬럼용 left join, spec 이 같은 속성을 inner join 했으면 그 join 을 재사용한다.
+     * (inner join 으로 이미 걸러진 행만 남으므로 결과는 같다)
+     */
+    @SuppressWarnings("unchecked")
+    public static <X, Y> Join<X, Y> leftJoin(From<?, X> from, String attribute) {
+        for (Join<X, ?> join : from.getJoins()) {
+            if (join.getAttribute().getName().equals(attribute) && join.getJoinType() != JoinType.RIGHT) {
+                return (Join<X, Y>) join;
+            }
+        }
+        return from.join(attribute, JoinType.LEFT);
+    }
+
+    private static Selectivity selectivity(Specification<?> specification) {
+        return specification instanceof SelectiveSpecification
+                ? ((SelectiveSpecification<?>) specification).selectivity()
+                : Selectivity.LOW;
+    }
+}
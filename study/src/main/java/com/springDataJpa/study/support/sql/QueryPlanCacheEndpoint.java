@@ -0,0 +1,114 @@
+package com.springDataJpa.study.support.sql;
+
+import lombok.Getter;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.query.spi.QueryPlanCache;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * /actuator/queryplans
+ * hibernate query plan cache 설정과 적중률, 컴파일 시간이 긴 쿼리 순 목록을 보여준다.
+ * hibernate.generate_statistics 가 켜져 있어야 값이 채워진다.
+ */
+@Component
+@Endpoint(id = "queryplans")
+public class QueryPlanCacheEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final SessionFactory sessionFactory;
+
+    public QueryPlanCacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @ReadOperation
+    public QueryPlanCacheReport report(@Nullable Integer limit) {
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Object> properties = sessionFactory.getProperties();
+
+        List<QueryPlanEntry> top = Arrays.stream(statistics.getQueries())
+                .map(query -> new QueryPlanEntry(query, statistics.getQueryStatistics(query)))
+                .sorted(Comparator.comparingLong(QueryPlanEntry::getPlanCompilationMicros).reversed())
+                .limit(limit == null ? DEFAULT_LIMIT : limit)
+                .collect(Collectors.toList());
+
+        return new QueryPlanCacheReport(
+                statistics.isStatisticsEnabled(),
+                setting(properties, AvailableSettings.QUERY_PLAN_CACHE_MAX_SIZE, QueryPlanCache.DEFAULT_QUERY_PLAN_MAX_COUNT),
+                setting(properties, AvailableSettings.QUERY_PLAN_CACHE_PARAMETER_METADATA_MAX_SIZE, QueryPlanCache.DEFAULT_PARAMETER_METADATA_MAX_COUNT),
+                Boolean.parseBoolean(String.valueOf(properties.get(AvailableSettings.IN_CLAUSE_PARAMETER_PADDING))),
+                statistics.getQueries().length,
+                statistics.getQueryPlanCacheHitCount(),
+                statistics.getQueryPlanCacheMissCount(),
+                top);
+    }
+
+    private static int setting(Map<String, Object> properties, String name, int defaultValue) {
+        Object value = properties.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value.toString());
+    }
+
+    @Getter
+    public static class QueryPlanCacheReport {
+        private final boolean statisticsEnabled;
+        private final int planCacheMaxSize;
+        private final int parameterMetadataMaxSize;
+        private final boolean inClauseParameterPadding;
+
+        /**
+         * 통계가 수집된 서로 다른 쿼리 수 (plan cache 에 들어간 hql 수의 근사치)
+         */
+        private final int distinctQueries;
+        private final long hits;
+        private final long misses;
+        private final double hitRatio;
+        private final List<QueryPlanEntry> top;
+
+        public QueryPlanCacheReport(boolean statisticsEnabled, int planCacheMaxSize, int parameterMetadataMaxSize,
+                                    boolean inClauseParameterPadding, int distinctQueries, long hits, long misses,
+                                    List<QueryPlanEntry> top) {
+            this.statisticsEnabled = statisticsEnabled;
+            this.planCacheMaxSize = planCacheMaxSize;
+            this.parameterMetadataMaxSize = parameterMetadataMaxSize;
+            this.inClauseParameterPadding = inClauseParameterPadding;
+            this.distinctQueries = distinctQueries;
+            this.hits = hits;
+            this.misses = misses;
+            this.hitRatio = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+            this.top = top;
+        }
+    }
+
+    @Getter
+    public static class QueryPlanEntry {
+        private final String query;
+        private final long planCompilationMicros;
+        private final long planCacheHits;
+        private final long planCacheMisses;
+        private final long executions;
+        private final long executionAvgMillis;
+
+        public QueryPlanEntry(String query, QueryStatistics statistics) {
+            this.query = query;
+            this.planCompilationMicros = statistics.getPlanCompilationTotalMicroseconds();
+            this.planCacheHits = statistics.getPlanCacheHitCount();
+            this.planCacheMisses = statistics.getPlanCacheMissCount();
+            this.executions = statistics.getExecutionCount();
+            this.executionAvgMillis = statistics.getExecutionAvgTime();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.springDataJpa.study.support.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Configuration
+public class SqlInspectionConfig {
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter(MeterRegistry meterRegistry) {
+        return new SqlStatementCounter(meterRegistry);
+    }
+
+    /**
+     * hibernate 에는 StatementInspector 를 하나만 등록할 수 있으므로 StatementInspector 빈들을 순서대로 연결한다.
+     * (BulkUpdateAuditInspector => SqlStatementCounter)
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementInspectorCustomizer(ObjectProvider<StatementInspector> statementInspectors) {
+        return properties -> {
+            List<StatementInspector> inspectors = statementInspectors.orderedStream().collect(Collectors.toList());
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                for (StatementInspector inspector : inspectors) {
+                    String inspected = inspector.inspect(sql);
+                    if (inspected != null) {
+                        sql = inspected;
+                    }
+                }
+                return sql;
+            });
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer slowQueryLogCustomizer(SqlInspectionProperties properties) {
+        return hibernateProperties -> {
+            long threshold = properties.getSlowQueryThreshold().toMillis();
+            if (threshold > 0) {
+                hibernateProperties.put(AvailableSettings.LOG_SLOW_QUERY, String.valueOf(threshold));
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer sqlStatementRequestConfigurer(SqlStatementCounter sqlStatementCounter,
+                                                          MeterRegistry meterRegistry,
+                                                          SqlInspectionProperties properties) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                if (properties.isRequestScope()) {
+                    registry.addInterceptor(new SqlStatementRequestInterceptor(
+                            sqlStatementCounter, meterRegistry, properties.getRepeatedSelectThreshold()));
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.springDataJpa.study.support.sql;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "study.sql")
+public class SqlInspectionProperties {
+
+    /**
+     * 한 요청 안에서 같은 모양의 select 가 이 횟수 이상 실행되면 N+1 로 의심
+     */
+    private int repeatedSelectThreshold = 3;
+
+    /**
+     * 요청 단위 sql 집계 여부
+     */
+    private boolean requestScope = true;
+
+    /**
+     * 이보다 오래 걸린 sql 을 org.hibernate.SQL_SLOW 로거에 남긴다.
+     * 0 이면 끔 (hibernate 가 실행 시간을 재지 않는다)
+     */
+    private Duration slowQueryThreshold = Duration.ZERO;
+}
@@ -0,0 +1,76 @@
+package com.springDataJpa.study.support.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * hibernate 가 실행하는 모든 sql 을 스레드 단위 scope 로 집계한다.
+ * scope 밖에서 실행된 sql 은 전체 카운터(sql.statements)에만 반영된다.
+ *
+ * <pre>
+ * try (SqlStatementCounter.Scope scope = counter.open()) {
+ *     ...
+ *     scope.stats().getSelects();
+ * }
+ * </pre>
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ThreadLocal<SqlStatementStats> current = new ThreadLocal<>();
+    private final Counter statements;
+
+    public SqlStatementCounter(MeterRegistry meterRegistry) {
+        this.statements = Counter.builder("sql.statements")
+                .description("hibernate 가 실행한 sql 수")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        statements.increment();
+
+        SqlStatementStats stats = current.get();
+        if (stats != null) {
+            stats.record(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * 현재 스레드에 새 scope 를 연다. 이미 열린 scope 가 있으면 close 시점에 복원된다.
+     */
+    public Scope open() {
+        Scope scope = new Scope(current.get());
+        current.set(scope.stats);
+        return scope;
+    }
+
+    public SqlStatementStats currentStats() {
+        return current.get();
+    }
+
+    public class Scope implements AutoCloseable {
+        private final SqlStatementStats previous;
+        private final SqlStatementStats stats = new SqlStatementStats();
+
+        private Scope(SqlStatementStats previous) {
+            this.previous = previous;
+        }
+
+        public SqlStatementStats stats() {
+            return stats;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.springDataJpa.study.support.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 요청 단위로 sql 수를 집계해서 metric 으로 남기고 N+1 의심 요청은 경고 로그를 남긴다.
+ */
+@Slf4j
+public class SqlStatementRequestInterceptor implements HandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = SqlStatementRequestInterceptor.class.getName() + ".SCOPE";
+
+    private final SqlStatementCounter counter;
+    private final MeterRegistry meterRegistry;
+    private final int threshold;
+
+    public SqlStatementRequestInterceptor(SqlStatementCounter counter, MeterRegistry meterRegistry, int threshold) {
+        this.counter = counter;
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(SCOPE_ATTRIBUTE, counter.open());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStatementCounter.Scope scope = (SqlStatementCounter.Scope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope == null) {
+            return;
+        }
+        scope.close();
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        SqlStatementStats stats = scope.stats();
+
+        DistributionSummary.builder("sql.statements.request")
+                .description("요청 한 번에 실행된 sql 수")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getTotal());
+
+        stats.suspectedNPlusOne(threshold).forEach((table, count) -> {
+            log.warn("N+1 suspected. uri = {}, table = {}, selects = {}", uri, table, count);
+            Counter.builder("sql.nplusone.suspected")
+                    .description("같은 모양의 select 가 반복된 요청 수")
+                    .tag("uri", uri)
+                    .tag("table", table)
+                    .register(meterRegistry)
+                    .increment();
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package com.springDataJpa.study.support.sql;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 하나의 scope(요청, 트랜잭션, 테스트) 동안 실행된 sql 통계
+ * 같은 모양(shape)의 select 가 반복되면 N+1 로 의심한다.
+ */
+public class SqlStatementStats {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("in \\((\\?\\s*,\\s*)*\\?\\)");
+    private static final Pattern FROM_TABLE = Pattern.compile("\\bfrom (\\w+)");
+
+    private int total;
+    private int selects;
+    private int inserts;
+    private int updates;
+    private int deletes;
+    private final Map<String, Integer> selectShapes = new HashMap<>();
+
+    void record(String sql) {
+        String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+        if (isSequenceCall(normalized)) {
+            return;
+        }
+
+        total++;
+        if (normalized.startsWith("select") || normalized.startsWith("with")) {
+            selects++;
+            selectShapes.merge(IN_LIST.matcher(normalized).replaceAll("in (?)"), 1, Integer::sum);
+        } else if (normalized.startsWith("insert")) {
+            inserts++;
+        } else if (normalized.startsWith("update")) {
+            updates++;
+        } else if (normalized.startsWith("delete")) {
+            deletes++;
+        }
+    }
+
+    private static boolean isSequenceCall(String sql) {
+        return sql.contains("nextval") || sql.contains("next value for");
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getSelects() {
+        return selects;
+    }
+
+    public int getInserts() {
+        return inserts;
+    }
+
+    public int getUpdates() {
+        return updates;
+    }
+
+    public int getDeletes() {
+        return deletes;
+    }
+
+    /**
+     * threshold 번 이상 반복된 select shape 과 실행 횟수
+     */
+    public Map<String, Integer> repeatedSelects(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        selectShapes.forEach((shape, count) -> {
+            if (count >= threshold) {
+                repeated.put(shape, count);
+            }
+        });
+        return Collections.unmodifiableMap(repeated);
+    }
+
+    /**
+     * N+1 로 의심되는 select 의 대상 테이블별 반복 횟수
+     */
+    public Map<String, Integer> suspectedNPlusOne(int threshold) {
+        Map<String, Integer> tables = new LinkedHashMap<>();
+        repeatedSelects(threshold).forEach((shape, count) -> tables.merge(table(shape), count, Integer::sum));
+        return Collections.unmodifiableMap(tables);
+    }
+
+    static String table(String shape) {
+        Matcher matcher = FROM_TABLE.matcher(shape);
+        return matcher.find() ? matcher.group(1) : "unknown";
+    }
+
+    @Override
+    public String toString() {
+        return "SqlStatementStats{" +
+                "total=" + total +
+                ", selects=" + selects +
+                ", inserts=" + inserts +
+                ", updates=" + updates +
+                ", deletes=" + deletes +
+                '}';
+    }
+}
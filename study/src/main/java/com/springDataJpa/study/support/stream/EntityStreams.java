@@ -0,0 +1,130 @@
+package com.springDataJpa.study.support.stream;
+
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.util.Assert;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 대량 조회 / 저장을 일정한 메모리로 처리하기 위한 유틸
+ * postgres 드라이버는 autocommit 이 꺼져 있을 때(트랜잭션 안)만 fetchSize 단위 서버 커서를 사용하므로
+ * 반드시 트랜잭션 안에서 호출하고 stream 은 try-with-resources 로 닫아야 한다.
+ */
+public final class EntityStreams {
+
+    private EntityStreams() {
+    }
+
+    /**
+     * 서버 커서 + read-only 엔티티(스냅샷 생성 x) 힌트 적용
+     */
+    public static <Q extends Query> Q cursorHints(Q query, int fetchSize) {
+        query.setHint(QueryHints.FETCH_SIZE, fetchSize);
+        query.setHint(QueryHints.READ_ONLY, true);
+        query.setHint(QueryHints.CACHEABLE, false);
+        return query;
+    }
+
+    /**
+     * 다음 엔티티를 꺼낼 때 이전 엔티티를 detach 해서 영속성 컨텍스트가 커지지 않게 한다.
+     * 따라서 스트림 요소는 다음 요소를 꺼내기 전까지만 영속 상태이고, 마지막으로 꺼낸 요소는 stream 을 닫을 때 detach 된다.
+     */
+    public static <T> Stream<T> detaching(EntityManager em, Stream<T> source) {
+        DetachingIterator<T> detaching = new DetachingIterator<>(em, source.iterator());
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(detaching, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        detaching.detachPrevious();
+                    } finally {
+                        source.close();
+                    }
+                });
+    }
+
+    /**
+     * 콜백 처리 후 바로 detach, 처리한 건수를 돌려준다.
+     */
+    public static <T> long forEachDetached(EntityManager em, Stream<T> source, Consumer<? super T> action) {
+        long count = 0;
+        try (source) {
+            for (Iterator<T> it = source.iterator(); it.hasNext(); ) {
+                T entity = it.next();
+                action.accept(entity);
+                em.detach(entity);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 대량 insert 용, batchSize 건마다 flush / clear 해서 영속성 컨텍스트 크기를 batchSize 이하로 유지한다.
+     * 시퀀스 pooled optimizer + jdbc batch size(batchSize) 로 batchSize 건이 하나의 jdbc batch 로 나간다.
+     * 호출하는 쪽의 트랜잭션 안에서 실행되어야 하며 clear 이후 넘겨준 엔티티는 준영속 상태가 된다.
+     *
+     * @return 저장한 건수
+     */
+    public static <T> long persistBatched(EntityManager em, Stream<T> entities, int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+
+        Session session = em.unwrap(Session.class);
+        Integer jdbcBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);
+
+        long count = 0;
+        try {
+            for (Iterator<T> it = entities.iterator(); it.hasNext(); ) {
+                em.persist(it.next());
+
+                if (++count % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.flush();
+            em.clear();
+        } finally {
+            session.setJdbcBatchSize(jdbcBatchSize);
+        }
+        return count;
+    }
+
+    private static class DetachingIterator<T> implements Iterator<T> {
+        private final EntityManager em;
+        private final Iterator<T> iterator;
+        private T previous;
+
+        private DetachingIterator(EntityManager em, Iterator<T> iterator) {
+            this.em = em;
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            detachPrevious();
+            previous = iterator.next();
+            return previous;
+        }
+
+        void detachPrevious() {
+            if (previous != null) {
+                em.detach(previous);
+                previous = null;
+            }
+        }
+    }
+}
@@ -2,23 +2,55 @@ package com.springDataJpa.study.repository;
 
 import com.springDataJpa.study.entity.Member;
 import com.springDataJpa.study.jpaRepository.MemberJpaRepository;
+import com.springDataJpa.study.support.bulk.BulkUpdate;
+import com.springDataJpa.study.support.bulk.BulkUpdateProgress;
+import com.springDataJpa.study.support.bulk.ChunkedBulkUpdater;
+import com.springDataJpa.study.support.paging.MemberCursor;
+import com.springDataJpa.study.support.paging.Window;
+import com.springDataJpa.study.support.metrics.RepositoryMetrics;
+import com.springDataJpa.study.support.sql.SqlStatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 
 @SpringBootTest
 @Transactional
+@Slf4j
 class MemberJpaRepositoryTest {
 
     @Autowired
     private MemberJpaRepository memberJpaRepository;
-//    @Autowired
-//    private MemberRepository memberRepository;
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private ChunkedBulkUpdater chunkedBulkUpdater;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @PersistenceContext
+    private EntityManager em;
 
     @Test
     public void saveMember() {
@@ -58,6 +90,45 @@ class MemberJpaRepositoryTest {
         assertThat(deletedCount).isEqualTo(0);
     }
 
+    /**
+     * batchSize 건마다 jdbc batch 하나로 insert 되고 영속성 컨텍스트는 비워진다.
+     * (jdbc batch 안에서는 같은 insert 문을 다시 준비하지 않으므로 준비된 insert 수 = batch 수)
+     */
+    @Test
+    public void saveAllBatched() {
+        long saved;
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            saved = memberJpaRepository.saveAllBatched(IntStream.range(0, 120)
+                    .mapToObj(i -> new Member("batched" + i, i % 100)), 50);
+
+            //50, 50, 20
+            assertThat(scope.stats().getInserts()).isEqualTo(3);
+        }
+
+        assertThat(saved).isEqualTo(120);
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+        assertThat(memberJpaRepository.count()).isEqualTo(120);
+
+        assertThatThrownBy(() -> memberJpaRepository.saveAllBatched(Stream.of(new Member("zero", 1)), 0))
+                .hasRootCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void streamAll() {
+        memberJpaRepository.saveAllBatched(IntStream.range(0, 100)
+                .mapToObj(i -> new Member("member" + i, i)), 50);
+
+        List<Member> visited = new ArrayList<>();
+        long count = memberJpaRepository.forEachMember(10, visited::add);
+
+        assertThat(count).isEqualTo(100);
+        assertThat(visited).noneMatch(em::contains);
+
+        try (Stream<Member> stream = memberJpaRepository.streamAll(10)) {
+            assertThat(stream.mapToInt(Member::getAge).sum()).isEqualTo(4950);
+        }
+    }
+
     @Test
     public void findByUsernameAndAgeGreaterThan() {
         Member member = new Member("usera", 10);
@@ -91,6 +162,48 @@ class MemberJpaRepositoryTest {
         assertThat(totalCount).isEqualTo(5L);
     }
 
+    @Test
+    public void repositoryMetrics() {
+        memberJpaRepository.save(new Member("userA", 10));
+        memberJpaRepository.save(new Member("userB", 10));
+        Timer timer = meterRegistry.timer(RepositoryMetrics.INVOCATIONS,
+                "repository", "MemberJpaRepository", "method", "findByPage", "exception", "None");
+        DistributionSummary rows = meterRegistry.summary(RepositoryMetrics.ROWS,
+                "repository", "MemberJpaRepository", "method", "findByPage");
+        long invocations = timer.count();
+        double totalRows = rows.totalAmount();
+
+        memberJpaRepository.findByPage(10, 0, 3);
+
+        assertThat(timer.count() - invocations).isEqualTo(1);
+        assertThat(rows.totalAmount() - totalRows).isEqualTo(2);
+    }
+
+    @Test
+    public void findByPageAfter() {
+        memberJpaRepository.save(new Member("userA", 10));
+        memberJpaRepository.save(new Member("userB", 10));
+        memberJpaRepository.save(new Member("userC", 10));
+        memberJpaRepository.save(new Member("userD", 10));
+        memberJpaRepository.save(new Member("userE", 10));
+        memberJpaRepository.save(new Member("userF", 20));
+        memberJpaRepository.save(new Member(null, 10));
+
+        Window<Member> first = memberJpaRepository.findByPageAfter(10, null, 3);
+        Window<Member> second = memberJpaRepository.findByPageAfter(10, MemberCursor.decode(first.getNextCursor()), 3);
+
+        //username 이 null 인 회원이 먼저(nulls first)
+        assertThat(first.getContent()).extracting("username").containsExactly(null, "userE", "userD");
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(second.getContent()).extracting("username").containsExactly("userC", "userB", "userA");
+        assertThat(second.isHasNext()).isFalse();
+
+        //null 에서 끝난 cursor 도 나머지를 빠짐없이 읽는다.
+        Window<Member> afterNull = memberJpaRepository.findByPageAfter(10,
+                MemberCursor.of(first.getContent().get(0)), 10);
+        assertThat(afterNull.getContent()).extracting("username").containsExactly("userE", "userD", "userC", "userB", "userA");
+    }
+
     @Test
     public void bulkAgePlus() {
         memberJpaRepository.save(new Member("usera", 10));
@@ -103,4 +216,100 @@ class MemberJpaRepositoryTest {
 
         assertThat(i).isEqualTo(3);
     }
-}
\ No newline at end of file
+
+    /**
+     * chunk 마다 커밋되고, 중간에 실패한 작업은 checkpoint 이후부터 이어서 실행된다.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void chunkedBulkUpdateResume() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> memberJpaRepository.saveAllBatched(
+                IntStream.range(0, 10).mapToObj(i -> new Member("member" + i, 20)), 50));
+
+        String jobName = "test.member-age-plus";
+        BulkUpdate.BulkUpdateBuilder update = BulkUpdate.builder()
+                .entityType(Member.class)
+                .set("e.age = e.age + 1")
+                .where("e.age >= :age")
+                .parameter("age", 20)
+                .chunkSize(3)
+                .jobName(jobName);
+
+        try {
+            //2번째 chunk 커밋 후 실패
+            assertThatThrownBy(() -> chunkedBulkUpdater.execute(update.progressListener(progress -> {
+                if (progress.getChunk() == 2) {
+                    throw new IllegalStateException("stop");
+                }
+            }).build())).isInstanceOf(IllegalStateException.class);
+
+            assertThat(memberRepository.findAll()).extracting("age").containsOnly(20, 21).filteredOn(age -> age.equals(21)).hasSize(6);
+
+            //다른 파라미터로는 이어서 실행할 수 없다.
+            assertThatThrownBy(() -> chunkedBulkUpdater.execute(BulkUpdate.builder()
+                    .entityType(Member.class)
+                    .set("e.age = e.age + 1")
+                    .where("e.age >= :age")
+                    .parameter("age", 21)
+                    .jobName(jobName)
+                    .build()))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("different update");
+
+            List<BulkUpdateProgress> resumed = new ArrayList<>();
+            long total = chunkedBulkUpdater.execute(update.progressListener(resumed::add).build());
+
+            assertThat(total).isEqualTo(10);
+            assertThat(resumed).extracting("updated").containsExactly(3, 1);
+            assertThat(memberRepository.findAll()).extracting("age").containsOnly(21);
+        } finally {
+            tx.executeWithoutResult(status -> {
+                memberRepository.deleteAllInBatch();
+                em.createQuery("delete from BulkUpdateCheckpoint").executeUpdate();
+            });
+        }
+    }
+
+    /**
+     * 같은 이름의 작업이 실행 중이면 다른 실행은 시작하지 않고, 실행 중인 작업은 그대로 끝난다.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void chunkedBulkUpdateConcurrentRun() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> memberJpaRepository.saveAllBatched(
+                IntStream.range(0, 10).mapToObj(i -> new Member("member" + i, 20)), 50));
+
+        BulkUpdate.BulkUpdateBuilder update = BulkUpdate.builder()
+                .entityType(Member.class)
+                .set("e.age = e.age + 1")
+                .chunkSize(3)
+                .jobName("test.member-age-plus-concurrent");
+
+        try {
+            List<Throwable> rejected = new ArrayList<>();
+            long total = chunkedBulkUpdater.execute(update.progressListener(progress -> {
+                if (progress.getChunk() == 1) {
+                    //첫 chunk 가 커밋된 뒤 같은 이름으로 다시 실행
+                    rejected.add(catchThrowable(() -> chunkedBulkUpdater.execute(update.progressListener(p -> {
+                    }).build())));
+                }
+            }).build());
+
+            assertThat(rejected).singleElement()
+                    .isInstanceOf(IllegalStateException.class)
+                    .extracting(Throwable::getMessage).asString().contains("already running");
+            assertThat(total).isEqualTo(10);
+            assertThat(memberRepository.findAll()).extracting("age").containsOnly(21);
+
+            //끝난 작업은 다시 실행할 수 있다.
+            assertThat(chunkedBulkUpdater.execute(update.build())).isEqualTo(10);
+        } finally {
+            tx.executeWithoutResult(status -> {
+                memberRepository.deleteAllInBatch();
+                em.createQuery("delete from BulkUpdateCheckpoint").executeUpdate();
+            });
+        }
+    }
+}
@@ -2,26 +2,67 @@ package com.springDataJpa.study.repository;
 
 import com.springDataJpa.study.dto.MemberDto;
 import com.springDataJpa.study.dto.MemberProjection;
+import com.springDataJpa.study.dto.NestedClosedProjections;
 import com.springDataJpa.study.dto.UsernameOnly;
 import com.springDataJpa.study.dto.UsernameOnlyDto;
 import com.springDataJpa.study.entity.Member;
 import com.springDataJpa.study.entity.Team;
+import com.springDataJpa.study.support.audit.BulkUpdateAuditInspector;
+import com.springDataJpa.study.support.cache.SecondLevelCacheConfig;
+import com.springDataJpa.study.support.metrics.RepositoryMetrics;
+import com.springDataJpa.study.support.paging.CountMode;
+import com.springDataJpa.study.support.paging.MemberCursor;
+import com.springDataJpa.study.support.paging.Window;
+import com.springDataJpa.study.support.sql.ExpectedQueries;
+import com.springDataJpa.study.support.sql.QueryPlanCacheEndpoint;
+import com.springDataJpa.study.support.spec.Specs;
+import com.springDataJpa.study.support.sql.SqlStatementCapture;
+import com.springDataJpa.study.support.sql.SqlStatementCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.*;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 @SpringBootTest
+@Import(SqlStatementCapture.class)
 @Transactional
 @Slf4j
 //@Rollback(false)
@@ -32,6 +73,27 @@ public class MemberRepositoryTest {
     @Autowired
     private MemberRepository memberRepository;
 
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private SqlStatementCapture sqlStatementCapture;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private QueryPlanCacheEndpoint queryPlanCacheEndpoint;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AuditorAware<String> auditorAware;
+
+    @Autowired
+    private BulkUpdateAuditInspector bulkUpdateAuditInspector;
+
     @PersistenceContext
     private EntityManager em;
 
@@ -165,6 +227,69 @@ public class MemberRepositoryTest {
         assertThat(page.hasNext()).isTrue();
     }
 
+    @Test
+    public void findMemberWindow() {
+        memberRepository.save(new Member("userA", 10));
+        memberRepository.save(new Member("userB", 10));
+        memberRepository.save(new Member("userB", 20));
+        memberRepository.save(new Member("userC", 10));
+
+        Window<Member> first = memberRepository.findMemberWindow(null, 2);
+        MemberCursor cursor = MemberCursor.decode(first.getNextCursor());
+        Window<Member> second = memberRepository.findMemberWindow(cursor, 2);
+
+        assertThat(first.getContent()).extracting("username").containsExactly("userC", "userB");
+        assertThat(cursor.getUsername()).isEqualTo("userB");
+        assertThat(second.getContent()).extracting("username").containsExactly("userB", "userA");
+        assertThat(second.isHasNext()).isFalse();
+    }
+
+    /**
+     * username 이 null 인 회원은 desc 정렬에서 맨 앞(nulls first)이고 cursor 에도 null 로 담긴다.
+     */
+    @Test
+    public void findMemberWindowNullUsername() {
+        Member nullA = memberRepository.save(new Member(null, 10));
+        Member nullB = memberRepository.save(new Member(null, 10));
+        Member userA = memberRepository.save(new Member("userA", 10));
+        Member userB = memberRepository.save(new Member("userB", 10));
+
+        List<Long> ids = new ArrayList<>();
+        MemberCursor cursor = null;
+        Window<Member> window;
+        do {
+            window = memberRepository.findMemberWindow(cursor, 1);
+            window.getContent().forEach(m -> ids.add(m.getId()));
+            cursor = MemberCursor.decode(window.getNextCursor());
+        } while (window.isHasNext());
+
+        assertThat(ids).containsExactly(nullB.getId(), nullA.getId(), userB.getId(), userA.getId());
+        assertThat(MemberCursor.decode(MemberCursor.of(nullA).encode())).isEqualTo(new MemberCursor(null, nullA.getId()));
+        assertThat(MemberCursor.decode(new MemberCursor("", 1L).encode()).getUsername()).isEmpty();
+    }
+
+    @Test
+    public void findPageByAgeCountMode() {
+        memberRepository.save(new Member("userA", 10));
+        memberRepository.save(new Member("userB", 10));
+        memberRepository.save(new Member("userC", 10));
+        memberRepository.save(new Member("userD", 10));
+        memberRepository.save(new Member("userE", 10));
+
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username"));
+
+        Page<Member> page = memberRepository.findPageByAge(10, pageRequest, CountMode.CACHED);
+        memberRepository.save(new Member("userF", 10));
+        Page<Member> cached = memberRepository.findPageByAge(10, pageRequest, CountMode.CACHED);
+        Page<Member> exact = memberRepository.findPageByAge(10, pageRequest, CountMode.EXACT);
+
+        assertThat(page.getContent()).extracting("username").containsExactly("userE", "userD", "userC");
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(cached.getTotalElements()).isEqualTo(5);
+        assertThat(exact.getTotalElements()).isEqualTo(6);
+        assertThat(exact.getContent()).extracting("username").containsExactly("userF", "userE", "userD");
+    }
+
     @Test
     public void bulkAgePlus() {
         memberRepository.save(new Member("usera", 10));
@@ -184,6 +309,7 @@ public class MemberRepositoryTest {
     }
 
     @Test
+    @ExpectedQueries(max = 1)
     public void findMemberLazy() {
         //given
         //member1 -> teamA
@@ -210,6 +336,336 @@ public class MemberRepositoryTest {
         });
     }
 
+    @Test
+    public void detectNPlusOne() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("team" + i);
+            teamRepository.save(team);
+            ids.add(memberRepository.save(new Member("member" + i, 10, team)).getId());
+        }
+        em.flush();
+        em.clear();
+
+        //같은 모양의 단건 조회 반복
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            ids.forEach(id -> memberRepository.findById(id));
+
+            assertThat(scope.stats().getSelects()).isEqualTo(3);
+            assertThat(scope.stats().suspectedNPlusOne(3)).containsEntry("member", 3);
+        }
+
+        //member.team 프록시는 default_batch_fetch_size 로 한 번에 초기화
+        em.clear();
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            memberRepository.findMemberCustom()
+                    .forEach(m -> log.info("member.team = {}", m.getTeam().getName()));
+
+            assertThat(scope.stats().getSelects()).isEqualTo(2);
+            assertThat(scope.stats().suspectedNPlusOne(2)).isEmpty();
+        }
+
+        em.clear();
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            memberRepository.findMemberFetchJoin()
+                    .forEach(m -> log.info("member.team = {}", m.getTeam().getName()));
+
+            assertThat(scope.stats().getSelects()).isEqualTo(1);
+            assertThat(scope.stats().suspectedNPlusOne(2)).isEmpty();
+        }
+    }
+
+    @Test
+    public void subselectTeamMembers() {
+        for (int i = 0; i < 3; i++) {
+            Team team = new Team("team" + i);
+            teamRepository.save(team);
+            memberRepository.save(new Member("member" + i, 10, team));
+            memberRepository.save(new Member("member" + i + "-2", 10, team));
+        }
+        em.flush();
+        em.clear();
+
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            List<Team> teams = teamRepository.findAll();
+            teams.forEach(t -> assertThat(t.getMembers()).hasSize(2));
+
+            assertThat(scope.stats().getSelects()).isEqualTo(2);
+        }
+    }
+
+    /**
+     * 같은 트랜잭션에서 insert 한 엔티티의 컬렉션은 2차 캐시에 올라가지 않으므로 커밋된 데이터로 확인한다.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void teamSecondLevelCache() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Team teamA = tx.execute(status -> {
+            Team team = teamRepository.save(new Team("teamA"));
+            memberRepository.save(new Member("member1", 10, team));
+            memberRepository.save(new Member("member2", 20, team));
+            return team;
+        });
+
+        org.hibernate.Cache cache = em.getEntityManagerFactory().getCache().unwrap(org.hibernate.Cache.class);
+        cache.evictAllRegions();
+
+        try {
+            //첫 조회에서 team / team.members 가 region 에 저장됨
+            tx.executeWithoutResult(status -> assertThat(teamRepository.findById(teamA.getId()).get().getMembers()).hasSize(2));
+
+            assertThat(cache.containsEntity(Team.class, teamA.getId())).isTrue();
+            assertThat(cache.containsCollection(SecondLevelCacheConfig.TEAM_MEMBERS_REGION, teamA.getId())).isTrue();
+            assertThat(teamA.getMembers()).allMatch(member -> cache.containsEntity(Member.class, member.getId()));
+
+            tx.executeWithoutResult(status -> {
+                try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+                    Team cached = teamRepository.findById(teamA.getId()).get();
+                    assertThat(cached.getName()).isEqualTo("teamA");
+                    //collection region 의 member id 로 member region 에서 읽는다.
+                    assertThat(cached.getMembers()).extracting("username").containsOnly("member1", "member2");
+                    assertThat(scope.stats().getSelects()).isZero();
+                }
+            });
+
+            //member 테이블 bulk update 는 member 를 참조하는 collection region 을 무효화
+            tx.executeWithoutResult(status -> memberRepository.bulkAgePlus(10));
+
+            assertThat(cache.containsEntity(Team.class, teamA.getId())).isTrue();
+            assertThat(cache.containsCollection(SecondLevelCacheConfig.TEAM_MEMBERS_REGION, teamA.getId())).isFalse();
+            assertThat(teamA.getMembers()).hasSize(2)
+                    .noneMatch(member -> cache.containsEntity(Member.class, member.getId()));
+        } finally {
+            tx.executeWithoutResult(status -> {
+                memberRepository.deleteAllInBatch();
+                teamRepository.deleteAllInBatch();
+            });
+        }
+    }
+
+    /**
+     * @CachedQuery 는 쓰기 트랜잭션 밖에서만 캐시되고 save / bulk update 로 무효화된다.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void cachedQuery() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team team = teamRepository.save(new Team("teamA"));
+            memberRepository.save(new Member("member1", 10, team));
+            memberRepository.save(new Member("member2", 20, team));
+        });
+        List<String> names = Arrays.asList("member1", "member2", "member3");
+
+        try {
+            assertThat(memberRepository.findMemberDtoByNames(names)).hasSize(2);
+
+            try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+                List<MemberDto> cached = memberRepository.findMemberDtoByNames(names);
+                assertThat(cached).extracting("teamName").containsOnly("teamA");
+                assertThat(scope.stats().getSelects()).isZero();
+            }
+
+            //save 이후에는 다시 조회
+            memberRepository.save(new Member("member3", 30));
+            assertThat(memberRepository.findMemberDtoByNames(names)).hasSize(3);
+
+            //join 한 Team 이 변경되어도 무효화 (dependsOn)
+            tx.executeWithoutResult(status -> teamRepository.findAll().forEach(t -> t.setName("teamB")));
+            assertThat(memberRepository.findMemberDtoByNames(names)).extracting("teamName")
+                    .containsOnly("teamB", null);
+
+            //bulk update 도 무효화
+            assertThat(memberRepository.findUsernameList()).hasSize(3);
+            tx.executeWithoutResult(status -> memberRepository.bulkAgePlus(20));
+            try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+                memberRepository.findUsernameList();
+                assertThat(scope.stats().getSelects()).isEqualTo(1);
+            }
+        } finally {
+            tx.executeWithoutResult(status -> {
+                memberRepository.deleteAllInBatch();
+                teamRepository.deleteAllInBatch();
+            });
+        }
+    }
+
+    @Test
+    public void queryPlanCacheEndpoint() {
+        memberRepository.save(new Member("member1", 10));
+        em.flush();
+
+        List<String> statements = sqlStatementCapture.capture(() -> {
+            memberRepository.findByNames(Arrays.asList("member1", "member2", "member3"));
+            memberRepository.findByNames(Arrays.asList("member1", "member2", "member3", "member4"));
+        });
+
+        //3개, 4개 모두 4칸으로 padding 되어 같은 sql
+        assertThat(statements).hasSize(2);
+        assertThat(statements.get(0)).isEqualTo(statements.get(1));
+        assertThat(statements.get(0)).contains("in (? , ? , ? , ?)");
+
+        QueryPlanCacheEndpoint.QueryPlanCacheReport report = queryPlanCacheEndpoint.report(100);
+
+        assertThat(report.isInClauseParameterPadding()).isTrue();
+        assertThat(report.getHits()).isPositive();
+        assertThat(report.getTop()).extracting("query").anyMatch(q -> ((String) q).contains("m.username in :names"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void findAsync() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            memberRepository.save(new Member("member1", 10));
+            memberRepository.save(new Member("member2", 10));
+            memberRepository.save(new Member("member3", 20));
+        });
+
+        try {
+            CompletableFuture<List<Member>> byUsername = memberRepository.findAsyncByUsername("member1");
+            CompletableFuture<Page<Member>> byAge = memberRepository.findAsyncByAge(10, PageRequest.of(0, 1, Sort.by("username")));
+
+            assertThat(byUsername.get(5, TimeUnit.SECONDS)).extracting("username").containsExactly("member1");
+            assertThat(byAge.get(5, TimeUnit.SECONDS).getContent()).extracting("username").containsExactly("member1");
+            assertThat(byAge.get().getTotalElements()).isEqualTo(2);
+            assertThat(meterRegistry.get("repository.executor.wait").timer().count()).isGreaterThanOrEqualTo(2);
+        } finally {
+            tx.executeWithoutResult(status -> memberRepository.deleteAllInBatch());
+        }
+    }
+
+    /**
+     * 다른 스레드의 트랜잭션이 잠근 행은 claimNext 에서 빠지고, nowait / timeout 조회는 오래 기다리지 않고 실패한다.
+     * skip locked 를 sql 로 만들지 못하는 dialect(h2 ...)에서는 claimNext 가 잠금을 기다리므로 건너뛴다.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void claimNext() throws Exception {
+        assumeTrue(em.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().supportsSkipLocked());
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            memberRepository.save(new Member("member1", 10));
+            memberRepository.save(new Member("member2", 20));
+            memberRepository.save(new Member("member3", 30));
+        });
+
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            //잠금은 호출한 트랜잭션 동안 유지되어야 하므로 트랜잭션 밖에서는 호출할 수 없다.
+            assertThatThrownBy(() -> memberRepository.claimNext(2))
+                    .isInstanceOf(IllegalTransactionStateException.class);
+
+            Future<List<String>> other = worker.submit(() -> tx.execute(status -> {
+                List<String> claimed = memberRepository.claimNext(2).stream()
+                        .map(Member::getUsername)
+                        .collect(Collectors.toList());
+                locked.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return claimed;
+            }));
+            assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+            tx.executeWithoutResult(status -> {
+                assertThat(memberRepository.claimNext(2)).extracting("username").containsExactly("member3");
+                assertThat(memberRepository.findSkipLockedByUsername("member1")).isEmpty();
+                assertThatThrownBy(() -> memberRepository.findNoWaitByUsername("member1"))
+                        .isInstanceOf(PessimisticLockingFailureException.class);
+                //실패한 문장 이후 postgres 트랜잭션은 사용할 수 없으므로 롤백
+                status.setRollbackOnly();
+            });
+            tx.executeWithoutResult(status -> {
+                assertThatThrownBy(() -> memberRepository.findLockByUsername("member2", Duration.ofMillis(100)))
+                        .isInstanceOf(PessimisticLockingFailureException.class);
+                status.setRollbackOnly();
+            });
+
+            release.countDown();
+            assertThat(other.get(10, TimeUnit.SECONDS)).containsExactly("member1", "member2");
+        } finally {
+            release.countDown();
+            worker.shutdown();
+            worker.awaitTermination(10, TimeUnit.SECONDS);
+            tx.executeWithoutResult(status -> memberRepository.deleteAllInBatch());
+        }
+    }
+
+    @Test
+    public void repositoryMetrics() {
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 10));
+        double findByAgeRows = rows("findByAge").totalAmount();
+        long findOptionalCount = rows("findOptionalMemberByUsername").count();
+
+        memberRepository.findListByUsername("member1");
+        memberRepository.findByAge(10, PageRequest.of(0, 10));
+        memberRepository.findOptionalMemberByUsername("none");
+
+        assertThat(rows("findByAge").totalAmount() - findByAgeRows).isEqualTo(2);
+        assertThat(rows("findOptionalMemberByUsername").count() - findOptionalCount).isEqualTo(1);
+        assertThat(meterRegistry.get("spring.data.repository.invocations")
+                .tags("repository", "MemberRepository", "method", "findListByUsername")
+                .timer().count()).isGreaterThan(0);
+        assertThat(meterRegistry.get("hikaricp.connections.active").gauge()).isNotNull();
+        assertThat(meterRegistry.get("hikaricp.connections.acquire").timer().count()).isGreaterThan(0);
+    }
+
+    private DistributionSummary rows(String method) {
+        return meterRegistry.summary(RepositoryMetrics.ROWS, "repository", "MemberRepository", "method", method);
+    }
+
+    @Test
+    public void auditing() {
+        Member member1 = memberRepository.save(new Member("member1", 10));
+        Member member2 = memberRepository.save(new Member("member2", 20));
+        em.flush();
+
+        //한 트랜잭션 안의 row 는 같은 시각을 사용한다.
+        assertThat(member1.getCreatedDate()).isNotNull();
+        assertThat(member2.getCreatedDate()).isEqualTo(member1.getCreatedDate());
+        assertThat(member1.getUpdatedDate()).isEqualTo(member1.getCreatedDate());
+
+        member1.setAge(11);
+        em.flush();
+        assertThat(member1.getUpdatedDate()).isEqualTo(member1.getCreatedDate());
+        assertThat(member1.getVersion()).isEqualTo(1);
+
+        assertThat(auditorAware.getCurrentAuditor()).isPresent().isEqualTo(auditorAware.getCurrentAuditor());
+    }
+
+    @Test
+    public void bulkUpdateAudit() {
+        Member member = memberRepository.save(new Member("member1", 10));
+        em.flush();
+        em.createNativeQuery("update member set updatedDate = null").executeUpdate();
+
+        //jpql bulk update 에는 리스너가 실행되지 않지만 sql 에 updatedDate 가 추가된다.
+        em.createQuery("update Member m set m.age = m.age + 1 where m.username = :username")
+                .setParameter("username", "member1")
+                .executeUpdate();
+        em.clear();
+
+        Member findMember = memberRepository.findById(member.getId()).get();
+        assertThat(findMember.getAge()).isEqualTo(11);
+        //db 시각(localtimestamp)이므로 TransactionClock 과 정확히 같지는 않다.
+        assertThat(findMember.getUpdatedDate()).isCloseTo(findMember.getCreatedDate(), within(1, ChronoUnit.MINUTES));
+
+        //트랜잭션마다 같은 sql
+        assertThat(bulkUpdateAuditInspector.inspect("update Member set age=age+1 where age>=?"))
+                .isEqualTo("update Member set updatedDate=localtimestamp, age=age+1 where age>=?");
+        String entityUpdate = "update Member set updatedDate=?, version=?, age=? where member_id=? and version=?";
+        assertThat(bulkUpdateAuditInspector.inspect(entityUpdate)).isEqualTo(entityUpdate);
+    }
+
     @Test
     public void queryHint() {
         Member member1 = memberRepository.save(new Member("member1", 10));
@@ -229,6 +685,36 @@ public class MemberRepositoryTest {
 
     }
 
+    @Test
+    public void streamMemberCustom() {
+        memberRepository.save(new Member("userA", 10));
+        memberRepository.save(new Member("userB", 20));
+        memberRepository.save(new Member("userC", 30));
+        em.flush();
+        em.clear();
+
+        List<Member> members;
+        try (Stream<Member> stream = memberRepository.streamMemberCustom(2)) {
+            members = stream.collect(Collectors.toList());
+        }
+
+        assertThat(members).extracting("username").containsExactlyInAnyOrder("userA", "userB", "userC");
+        //마지막 요소도 close 할 때 detach 된다.
+        assertThat(members).noneMatch(em::contains);
+
+        //끝까지 읽지 않고 닫아도 꺼낸 요소는 detach 된다.
+        Member first;
+        try (Stream<Member> stream = memberRepository.streamMemberCustom(2)) {
+            first = stream.findFirst().orElseThrow();
+            assertThat(em.contains(first)).isTrue();
+        }
+        assertThat(em.contains(first)).isFalse();
+
+        long count = memberRepository.forEachMemberCustom(2, m -> assertThat(em.contains(m)).isTrue());
+        assertThat(count).isEqualTo(3);
+        assertThat(members.stream().anyMatch(em::contains)).isFalse();
+    }
+
     @Test
 
     public void specMember() {
@@ -251,6 +737,102 @@ public class MemberRepositoryTest {
         assertThat(result.size()).isEqualTo(2);
     }
 
+    @Test
+    public void specComposition() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("useA", 1, teamA));
+        em.persist(new Member("useB", 1, teamA));
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        Map<String, Integer> selects;
+        long planHits;
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            //조합 순서가 달라도 join 은 하나, 같은 sql
+            assertThat(memberRepository.findAll(Specification.where(MemberSpec.teamname("teamA"))
+                    .and(MemberSpec.username("useA"))
+                    .and(MemberSpec.teamname("teamA"))))
+                    .extracting("username").containsExactly("useA");
+            planHits = statistics.getQueryPlanCacheHitCount();
+            assertThat(memberRepository.findAll(Specs.allOf(MemberSpec.teamname("teamA"), MemberSpec.username("useB"))))
+                    .extracting("username").containsExactly("useB");
+            assertThat(memberRepository.findAll(Specs.allOf(MemberSpec.username("useA"), MemberSpec.teamname("teamA"))))
+                    .extracting("username").containsExactly("useA");
+            selects = scope.stats().repeatedSelects(1);
+        }
+
+        assertThat(selects).hasSize(2);
+        assertThat(selects.keySet()).allSatisfy(sql -> assertThat(sql.split(" join ")).hasSize(2));
+        assertThat(selects).containsValue(2);
+        assertThat(statistics.getQueryPlanCacheHitCount()).isGreaterThan(planHits);
+    }
+
+    @Test
+    public void specProjection() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 5; i++) {
+            em.persist(new Member("useA" + i, i, teamA));
+        }
+        em.persist(new Member("noTeam", 1));
+        em.flush();
+        em.clear();
+
+        Specification<Member> spec = Specs.allOf(MemberSpec.teamname("teamA"));
+        Page<MemberDto> page;
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            page = memberRepository.findAll(spec, MemberSpec.DTO, PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "username")));
+            //마지막 페이지라 count 쿼리는 실행되지 않는다.
+            assertThat(scope.stats().getSelects()).isEqualTo(1);
+            assertThat(scope.stats().repeatedSelects(1).keySet())
+                    .allSatisfy(sql -> assertThat(sql.split(" join ")).hasSize(2));
+        }
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).extracting("username", "teamName")
+                .startsWith(org.assertj.core.groups.Tuple.tuple("useA1", "teamA"));
+
+        Page<MemberProjection> projections = memberRepository.findAll(null, MemberSpec.PROJECTION,
+                PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "id")));
+        assertThat(projections.getTotalElements()).isEqualTo(6);
+        assertThat(projections.getContent()).extracting(MemberProjection::getUsername).first().isEqualTo("noTeam");
+        assertThat(projections.getContent().get(0).getTeamName()).isNull();
+
+        Window<MemberDto> first = memberRepository.findWindow(spec, MemberSpec.DTO, null, 3);
+        assertThat(first.getContent()).extracting("username").containsExactly("useA5", "useA4", "useA3");
+        assertThat(first.isHasNext()).isTrue();
+
+        Window<MemberDto> second = memberRepository.findWindow(spec, MemberSpec.DTO, MemberCursor.decode(first.getNextCursor()), 3);
+        assertThat(second.getContent()).extracting("username").containsExactly("useA2", "useA1");
+        assertThat(second.isHasNext()).isFalse();
+    }
+
+    /**
+     * findWindow 도 findMemberWindow 와 같은 순서(nulls first)로 null username 을 건너뛰지 않는다.
+     */
+    @Test
+    public void findWindowNullUsername() {
+        Member nullA = memberRepository.save(new Member(null, 10));
+        Member nullB = memberRepository.save(new Member(null, 10));
+        Member userA = memberRepository.save(new Member("userA", 10));
+        Member userB = memberRepository.save(new Member("userB", 10));
+        em.flush();
+
+        List<Long> ids = new ArrayList<>();
+        MemberCursor cursor = null;
+        Window<MemberDto> window;
+        do {
+            window = memberRepository.findWindow(null, MemberSpec.DTO, cursor, 1);
+            window.getContent().forEach(m -> ids.add(m.getId()));
+            cursor = MemberCursor.decode(window.getNextCursor());
+        } while (window.isHasNext());
+
+        assertThat(ids).containsExactly(nullB.getId(), nullA.getId(), userB.getId(), userA.getId());
+        assertThat(ids).isEqualTo(memberRepository.findMemberWindow(null, 4).getContent().stream()
+                .map(Member::getId).collect(Collectors.toList()));
+    }
+
     /**
      * ex: Example class
      * inner join은 가능할지 모르나 left outer join이나 다른 조인이 사용이 힘들 수 있다.
@@ -281,6 +863,43 @@ public class MemberRepositoryTest {
 
     }
 
+    @Test
+    public void queryByExampleShape() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("useA", 1, teamA));
+        em.persist(new Member("useB", 1, teamA));
+        em.persist(new Member("use_C", 1));
+        em.flush();
+        em.clear();
+
+        ExampleMatcher containing = ExampleMatcher.matching()
+                .withIgnorePaths("age")
+                .withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING)
+                .withIgnoreCase();
+        Counter hits = meterRegistry.counter("example.query.shape", "result", "hit");
+        double before = hits.count();
+
+        Page<Member> page = memberRepository.findAll(Example.of(new Member("SE", 0, new Team("teamA")), containing),
+                PageRequest.of(0, 10, Sort.by("username")));
+        assertThat(page.getContent()).extracting("username").containsExactly("useA", "useB");
+        //값만 다르고 모양이 같으면 jpql 재사용
+        assertThat(memberRepository.findAll(Example.of(new Member("useb", 0, new Team("TEAMA")), containing)))
+                .extracting("username").containsExactly("useB");
+        assertThat(hits.count() - before).isEqualTo(1);
+
+        //like 의 % _ 는 escape
+        assertThat(memberRepository.findAll(Example.of(new Member("e_"), containing))).extracting("username").containsExactly("use_C");
+
+        ExampleMatcher startingWithNull = ExampleMatcher.matching()
+                .withIgnorePaths("age", "id", "version", "createdDate", "updatedDate")
+                .withStringMatcher(ExampleMatcher.StringMatcher.STARTING)
+                .withIncludeNullValues();
+        assertThat(memberRepository.findAll(Example.of(new Member("use"), startingWithNull))).extracting("username").containsExactly("use_C");
+        assertThat(memberRepository.count(Example.of(new Member("use"), ExampleMatcher.matching().withIgnorePaths("age")
+                .withStringMatcher(ExampleMatcher.StringMatcher.STARTING)))).isEqualTo(3);
+    }
+
     @Test
     public void projections() {
         Team teamA = new Team("teamA");
@@ -298,6 +917,57 @@ public class MemberRepositoryTest {
         result.forEach(u -> log.info("user = {}", u.toString()));
     }
 
+    @Test
+    public void closedProjections() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("useA", 1, teamA));
+        em.persist(new Member("useA", 2));
+        em.flush();
+        em.clear();
+
+        List<NestedClosedProjections> nested;
+        Map<String, Integer> selects;
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            nested = memberRepository.findProjectionsByUsername("useA", NestedClosedProjections.class);
+            selects = scope.stats().repeatedSelects(1);
+        }
+        //team 전체가 아닌 team.name 만, join 은 하나
+        assertThat(selects).hasSize(1);
+        assertThat(selects.keySet()).allSatisfy(sql -> {
+            assertThat(sql.split(" join ")).hasSize(2);
+            assertThat(sql).doesNotContain("createdDate");
+        });
+        assertThat(nested).extracting(n -> n.getTeam() == null ? null : n.getTeam().getName())
+                .containsExactlyInAnyOrder("teamA", null);
+        assertThat(nested).allSatisfy(n -> assertThat(Proxy.isProxyClass(n.getClass())).isFalse());
+
+        List<UsernameOnly> usernames = memberRepository.findProjectionsByUsername("useA", UsernameOnly.class);
+        assertThat(usernames).extracting(UsernameOnly::getUsername).containsExactly("useA", "useA");
+        assertThat(usernames.get(0)).isEqualTo(usernames.get(1)).hasToString(usernames.get(1).toString());
+
+        Page<MemberProjection> page = memberRepository.findAll(null, MemberSpec.PROJECTION, PageRequest.of(0, 10, Sort.by("age")));
+        assertThat(page.getContent()).extracting(MemberProjection::getTeamName).containsExactly("teamA", null);
+    }
+
+    @Test
+    public void closedProjectionsBlankUsername() {
+        em.persist(new Member("useA", 1));
+        em.persist(new Member((String) null));
+        em.persist(new Member(""));
+        em.flush();
+        em.clear();
+
+        //파생 쿼리 findProjectionsByUsername(String) 과 같이 null 은 is null, 빈 문자열은 = ''
+        assertThat(memberRepository.findProjectionsByUsername(null, UsernameOnly.class))
+                .hasSameSizeAs(memberRepository.findProjectionsByUsername(null))
+                .extracting(UsernameOnly::getUsername).containsExactly((String) null);
+        assertThat(memberRepository.findProjectionsByUsername("", UsernameOnly.class))
+                .hasSameSizeAs(memberRepository.findProjectionsByUsername(""))
+                .extracting(UsernameOnly::getUsername).containsExactly("");
+        assertThat(memberRepository.findProjectionsByUsername(" ", UsernameOnly.class)).isEmpty();
+    }
+
     @Test
     public void projectionsDto() {
         Team teamA = new Team("teamA");
@@ -347,5 +1017,10 @@ public class MemberRepositoryTest {
 
         Page<MemberProjection> result = memberRepository.findByNativeProjections(PageRequest.ofSize(10));
         result.getContent().forEach(m -> log.info("member username = {}, teamName = {}", m.getUsername(), m.getTeamName()));
+
+        //첫 페이지가 pageSize 보다 작으므로 count 쿼리 없이 total 이 결정됨
+        Page<MemberProjection> approximate = memberRepository.findNativeProjectionsPage(PageRequest.ofSize(10), CountMode.APPROXIMATE);
+        assertThat(approximate.getTotalElements()).isEqualTo(result.getTotalElements());
+        assertThat(approximate.getContent()).extracting("teamName").containsOnly("teamA");
     }
 }
@@ -0,0 +1,88 @@
+package com.springDataJpa.study.repository;
+
+import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.entity.Team;
+import com.springDataJpa.study.support.paging.CountMode;
+import com.springDataJpa.study.support.paging.Window;
+import com.springDataJpa.study.support.sql.SqlStatementCounter;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+public class TeamRepositoryTest {
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            Team team = teamRepository.save(new Team("team" + i));
+            memberRepository.save(new Member("member" + i, 10, team));
+            memberRepository.save(new Member("member" + i + "-2", 10, team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    /**
+     * team id 페이징 + fetch join 두 단계, 순서와 페이지 정보 유지
+     */
+    @Test
+    public void findPageWithMembers() {
+        Page<Team> page;
+        try (SqlStatementCounter.Scope scope = sqlStatementCounter.open()) {
+            page = teamRepository.findPageWithMembers(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "name")), CountMode.EXACT);
+            page.getContent().forEach(t -> assertThat(t.getMembers()).hasSize(2));
+
+            //id 페이징, fetch join, count
+            assertThat(scope.stats().getSelects()).isEqualTo(3);
+        }
+        assertThat(page.getContent()).extracting("name").containsExactly("team4", "team3");
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getTotalPages()).isEqualTo(3);
+    }
+
+    /**
+     * size + 1 번째 team 은 다음 window 판단에만 쓰이고 members 와 함께 읽지 않는다.
+     */
+    @Test
+    public void findWindowWithMembers() {
+        Window<Team> first = teamRepository.findWindowWithMembers(null, 3);
+
+        assertThat(first.getContent()).extracting("name").containsExactly("team0", "team1", "team2");
+        assertThat(first.isHasNext()).isTrue();
+        //team 3 + member 6
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isEqualTo(9);
+
+        em.clear();
+        Window<Team> second = teamRepository.findWindowWithMembers(Long.valueOf(first.getNextCursor()), 3);
+
+        assertThat(second.getContent()).extracting("name").containsExactly("team3", "team4");
+        assertThat(second.getContent()).allSatisfy(t -> assertThat(t.getMembers()).hasSize(2));
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isEqualTo(String.valueOf(second.getContent().get(1).getId()));
+    }
+}
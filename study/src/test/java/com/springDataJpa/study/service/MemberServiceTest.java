@@ -0,0 +1,83 @@
+package com.springDataJpa.study.service;
+
+import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.repository.MemberRepository;
+import com.springDataJpa.study.support.retry.OptimisticRetryTemplate;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 커밋 시점의 version 충돌을 봐야 하므로 테스트 트랜잭션 없이 실행한다.
+ */
+@SpringBootTest
+class MemberServiceTest {
+
+    @Autowired
+    private MemberService memberService;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private OptimisticRetryTemplate retryTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanup() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void addAge() {
+        Long id = memberRepository.save(new Member("member1", 10)).getId();
+
+        memberService.addAge(id, 1);
+        memberService.addAge(id, 2);
+
+        Member member = memberRepository.findById(id).orElseThrow();
+        assertThat(member.getAge()).isEqualTo(13);
+        assertThat(member.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void retryOnConflict() {
+        Long id = memberRepository.save(new Member("member1", 10)).getId();
+        TransactionTemplate other = new TransactionTemplate(transactionManager);
+        other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        double conflicts = meterRegistry.counter("optimistic.lock.conflicts", "name", "test.addAge").count();
+        double retries = meterRegistry.counter("optimistic.lock.retries", "name", "test.addAge").count();
+        AtomicInteger attempts = new AtomicInteger();
+
+        retryTemplate.execute("test.addAge", status -> {
+            Member member = memberRepository.findById(id).orElseThrow();
+            if (attempts.incrementAndGet() == 1) {
+                //읽은 뒤 다른 트랜잭션이 먼저 수정하고 커밋
+                other.executeWithoutResult(s -> memberService.addAge(id, 5));
+            }
+            member.setAge(member.getAge() + 1);
+            return member;
+        });
+
+        Member member = memberRepository.findById(id).orElseThrow();
+        assertThat(attempts).hasValue(2);
+        assertThat(member.getAge()).isEqualTo(16);
+        assertThat(member.getVersion()).isEqualTo(2);
+        assertThat(meterRegistry.counter("optimistic.lock.conflicts", "name", "test.addAge").count()).isEqualTo(conflicts + 1);
+        assertThat(meterRegistry.counter("optimistic.lock.retries", "name", "test.addAge").count()).isEqualTo(retries + 1);
+    }
+}
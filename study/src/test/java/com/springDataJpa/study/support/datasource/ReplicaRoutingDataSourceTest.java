@@ -0,0 +1,103 @@
+package com.springDataJpa.study.support.datasource;
+
+import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.repository.MemberRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * replica 로 같은 db 를 바라보는 두 번째 pool 을 사용해서 라우팅만 확인한다.
+ * 다른 테스트 컨텍스트와 같은 db 를 쓰므로 스키마를 다시 만들지 않는다.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=update",
+        "study.datasource.replica.url=${spring.datasource.url}",
+        "study.datasource.replica.username=${spring.datasource.username}",
+        "study.datasource.replica.password=${spring.datasource.password}",
+        "study.datasource.replica.driver-class-name=${spring.datasource.driver-class-name}"
+})
+class ReplicaRoutingDataSourceTest {
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanup() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void routing() {
+        double primary = routes("primary");
+        memberRepository.save(new Member("member1", 10));
+        assertThat(routes("primary")).isEqualTo(primary + 1);
+
+        //readOnly 를 붙인 조회 메서드만 replica
+        double replica = routes("replica");
+        assertThat(memberRepository.findByUsername("member1")).hasSize(1);
+        assertThat(routes("replica")).isEqualTo(replica + 1);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            memberRepository.findByUsername("member1");
+            memberRepository.findReadOnlyByUsername("member1");
+        });
+        assertThat(routes("replica")).isEqualTo(replica + 2);
+
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        readWrite.executeWithoutResult(status -> memberRepository.findByUsername("member1"));
+        assertThat(routes("primary")).isEqualTo(primary + 2);
+
+        //Query by Example 은 SimpleJpaRepository 와 같이 replica
+        double replicaExample = routes("replica");
+        assertThat(memberRepository.findAll(Example.of(new Member("member1", 10)))).hasSize(1);
+        assertThat(memberRepository.count(Example.of(new Member("member1", 10)))).isEqualTo(1);
+        assertThat(routes("replica")).isEqualTo(replicaExample + 2);
+
+        //readOnly 가 없는 쿼리 메서드는 트랜잭션을 시작하지 않는다.
+        double replicaBefore = routes("replica");
+        memberRepository.findListByUsername("member1");
+        assertThat(routes("replica")).isEqualTo(replicaBefore);
+    }
+
+    /**
+     * 쓰기 트랜잭션 안의 조회는 readOnly 메서드여도 같은 트랜잭션(primary)에 참여하고
+     * flush 된 변경을 읽는다.
+     */
+    @Test
+    void readYourWrites() {
+        double replica = routes("replica");
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        readWrite.executeWithoutResult(status -> {
+            memberRepository.save(new Member("member1", 10));
+            assertThat(memberRepository.findByUsername("member1")).hasSize(1);
+            assertThat(memberRepository.findListByUsername("member1")).hasSize(1);
+
+            memberRepository.findByUsername("member1").get(0).setAge(20);
+            //dirty checking 변경도 auto flush 후 조회
+            assertThat(memberRepository.findByAge(20, PageRequest.of(0, 10)).getContent()).hasSize(1);
+        });
+        assertThat(routes("replica")).isEqualTo(replica);
+        assertThat(memberRepository.findByUsername("member1")).extracting("age").containsExactly(20);
+    }
+
+    private double routes(String target) {
+        return meterRegistry.get("datasource.routing").tag("target", target).counter().count();
+    }
+}
@@ -0,0 +1,58 @@
+package com.springDataJpa.study.support.example;
+
+import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.entity.Team;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.relational.AuxiliaryDatabaseObject;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQL10Dialect;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExampleIndexIntegratorTest {
+
+    @Test
+    public void createIndex() {
+        assertThat(ExampleIndexIntegrator.createIndex("Member", "username", ExampleIndex.Type.PREFIX, false))
+                .isEqualTo("create index if not exists ix_member_username_prefix on Member (username text_pattern_ops)");
+        assertThat(ExampleIndexIntegrator.createIndex("Member", "username", ExampleIndex.Type.TRIGRAM, true))
+                .isEqualTo("create index if not exists ix_member_username_lower_trgm on Member using gin (lower(username) gin_trgm_ops)");
+    }
+
+    /**
+     * db 연결 없이 엔티티 매핑에서 만들어지는 ddl 을 확인한다.
+     */
+    @Test
+    public void indexes() {
+        Dialect postgres = new PostgreSQL10Dialect();
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DIALECT, postgres)
+                .build();
+        try {
+            Metadata metadata = new MetadataSources(registry)
+                    .addAnnotatedClass(Member.class)
+                    .addAnnotatedClass(Team.class)
+                    .buildMetadata();
+
+            AuxiliaryDatabaseObject indexes = ExampleIndexIntegrator.indexes(metadata, postgres).orElseThrow();
+            assertThat(indexes.sqlCreateStrings(postgres)).containsExactly(
+                    "create extension if not exists pg_trgm",
+                    "create index if not exists ix_member_username_lower_prefix on Member (lower(username) text_pattern_ops)",
+                    "create index if not exists ix_member_username_lower_trgm on Member using gin (lower(username) gin_trgm_ops)");
+            assertThat(indexes.sqlDropStrings(postgres)).containsExactly(
+                    "drop index if exists ix_member_username_lower_prefix",
+                    "drop index if exists ix_member_username_lower_trgm");
+
+            //postgres 가 아니면 만들지 않는다.
+            assertThat(ExampleIndexIntegrator.indexes(metadata, new H2Dialect())).isEmpty();
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+}
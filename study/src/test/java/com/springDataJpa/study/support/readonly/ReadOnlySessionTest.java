@@ -0,0 +1,144 @@
+package com.springDataJpa.study.support.readonly;
+
+import com.springDataJpa.study.controller.MemberController;
+import com.springDataJpa.study.entity.Member;
+import com.springDataJpa.study.repository.MemberRepository;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * open-in-view 와 같이 트랜잭션 없이 세션을 스레드에 묶어 두고 확인한다.
+ */
+@SpringBootTest
+class ReadOnlySessionTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReadOnlySessionSupport readOnlySessionSupport;
+
+    @Autowired
+    private MemberController memberController;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private EntityManager em;
+    private Long memberId;
+
+    @BeforeEach
+    void setUp() {
+        memberId = memberRepository.save(new Member("member1", 10)).getId();
+        em = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(em));
+    }
+
+    @AfterEach
+    void cleanup() {
+        TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        em.close();
+        memberRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void getRequest() throws Exception {
+        ReadOnlySessionRequestInterceptor interceptor = new ReadOnlySessionRequestInterceptor(readOnlySessionSupport);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/members/" + memberId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Session session = em.unwrap(Session.class);
+
+        interceptor.preHandle(request, response, null);
+        Member member = em.find(Member.class, memberId);
+        assertThat(session.isReadOnly(member)).isTrue();
+        assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.MANUAL);
+
+        interceptor.afterCompletion(request, response, null, null);
+        assertThat(session.isDefaultReadOnly()).isFalse();
+        assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.AUTO);
+
+        //GET 이 아니면 그대로
+        em.clear();
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/members");
+        interceptor.preHandle(post, response, null);
+        assertThat(session.isReadOnly(em.find(Member.class, memberId))).isFalse();
+        interceptor.afterCompletion(post, response, null, null);
+    }
+
+    /**
+     * listAfter / findMemberWindow 는 트랜잭션 없이 open-in-view 세션으로 조회하므로
+     * 결과 차이는 @ReadOnlySession 때문이다.
+     */
+    @Test
+    void classLevelAnnotation() {
+        Session session = em.unwrap(Session.class);
+        assertThat(AopUtils.isAopProxy(memberController)).isTrue();
+
+        Member member = memberController.listAfter("", 5).getContent().get(0);
+        assertThat(session.contains(member)).isTrue();
+        assertThat(session.isReadOnly(member)).isTrue();
+        assertThat(session.isDefaultReadOnly()).isFalse();
+        assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.AUTO);
+
+        //같은 조회를 어노테이션 없이
+        em.clear();
+        Member writable = memberRepository.findMemberWindow(null, 5).getContent().get(0);
+        assertThat(session.contains(writable)).isTrue();
+        assertThat(session.isReadOnly(writable)).isFalse();
+    }
+
+    /**
+     * read-only GET 요청 안에서 시작한 쓰기 트랜잭션은 이미 읽은 엔티티의 변경도 update 한다.
+     */
+    @Test
+    void writableTransactionInReadOnlyRequest() throws Exception {
+        ReadOnlySessionRequestInterceptor interceptor = new ReadOnlySessionRequestInterceptor(readOnlySessionSupport);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/members/" + memberId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Session session = em.unwrap(Session.class);
+
+        interceptor.preHandle(request, response, null);
+        try {
+            Member member = em.find(Member.class, memberId);
+            assertThat(session.isReadOnly(member)).isTrue();
+
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                assertThat(session.isDefaultReadOnly()).isFalse();
+                memberRepository.findById(memberId).get().setAge(20);
+            });
+
+            //트랜잭션이 끝나면 다시 read-only
+            assertThat(session.isDefaultReadOnly()).isTrue();
+            assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.MANUAL);
+        } finally {
+            interceptor.afterCompletion(request, response, null, null);
+        }
+
+        EntityManager other = entityManagerFactory.createEntityManager();
+        try {
+            assertThat(other.find(Member.class, memberId).getAge()).isEqualTo(20);
+        } finally {
+            other.close();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.springDataJpa.study.support.spec;
+
+import com.springDataJpa.study.entity.Member;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpecProjectionTest {
+
+    /**
+     * 같은 개수의 생성자가 여럿이면 선언 순서에 기대지 않고 파라미터 타입을 요구한다.
+     */
+    @Test
+    public void ambiguousConstructor() {
+        assertThatThrownBy(() -> columns().dto(Overloaded.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("2 constructors with 2 parameters");
+
+        assertThatCode(() -> columns().dto(Overloaded.class, Long.class, String.class)).doesNotThrowAnyException();
+        assertThatCode(() -> columns().dto(Overloaded.class, String.class, Integer.class)).doesNotThrowAnyException();
+    }
+
+    @Test
+    public void missingConstructor() {
+        assertThatThrownBy(() -> columns().dto(Overloaded.class, Long.class, Long.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("has no constructor");
+        assertThatThrownBy(() -> columns().dto(Overloaded.class, Long.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("expected 2 parameter types");
+    }
+
+    private static SpecProjection.Builder<Member> columns() {
+        return SpecProjection.of(Member.class)
+                .attribute("id")
+                .attribute("username");
+    }
+
+    static class Overloaded {
+        Overloaded(Long id, String username) {
+        }
+
+        Overloaded(String username, Integer age) {
+        }
+    }
+}
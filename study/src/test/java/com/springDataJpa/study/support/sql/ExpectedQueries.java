@@ -0,0 +1,33 @@
+package com.springDataJpa.study.support.sql;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 테스트 메서드에서 실행된 select 수를 검증한다. (시퀀스 호출 제외)
+ * 같은 모양의 select 가 반복되면(N+1) max 와 상관없이 실패한다.
+ *
+ * <pre>
+ * &#64;Test
+ * &#64;ExpectedQueries(max = 2)
+ * public void findMemberFetchJoin() { ... }
+ * </pre>
+ */
+@Target({ElementType.METHOD, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(ExpectedQueriesExtension.class)
+public @interface ExpectedQueries {
+
+    int max();
+
+    /**
+     * 같은 모양의 select 가 이 횟수 이상이면 N+1 로 판단
+     */
+    int repeatedSelectThreshold() default 2;
+
+    boolean allowNPlusOne() default false;
+}
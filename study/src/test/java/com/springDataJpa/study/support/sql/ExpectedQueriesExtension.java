@@ -0,0 +1,44 @@
+package com.springDataJpa.study.support.sql;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExpectedQueriesExtension implements BeforeEachCallback, AfterEachCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(ExpectedQueriesExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        SqlStatementCounter counter = SpringExtension.getApplicationContext(context).getBean(SqlStatementCounter.class);
+        context.getStore(NAMESPACE).put(context.getUniqueId(), counter.open());
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        SqlStatementCounter.Scope scope = context.getStore(NAMESPACE).remove(context.getUniqueId(), SqlStatementCounter.Scope.class);
+        if (scope == null) {
+            return;
+        }
+        scope.close();
+
+        ExpectedQueries expected = context.getRequiredTestMethod().getAnnotation(ExpectedQueries.class);
+        SqlStatementStats stats = scope.stats();
+
+        assertThat(stats.getSelects())
+                .as("select count, %s", stats)
+                .isLessThanOrEqualTo(expected.max());
+
+        if (!expected.allowNPlusOne()) {
+            Map<String, Integer> repeated = stats.repeatedSelects(expected.repeatedSelectThreshold());
+            assertThat(repeated)
+                    .as("N+1 suspected")
+                    .isEmpty();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.springDataJpa.study.support.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 테스트용, capture 안에서 실행된 sql 원문을 순서대로 모은다. (@Import 로 등록하면 inspector 체인에 연결된다)
+ */
+public class SqlStatementCapture implements StatementInspector {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient ThreadLocal<List<String>> current = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = current.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    public List<String> capture(Runnable action) {
+        List<String> statements = new ArrayList<>();
+        current.set(statements);
+        try {
+            action.run();
+        } finally {
+            current.remove();
+        }
+        return statements;
+    }
+}